@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import jakarta.enterprise.inject.Vetoed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Association keys held in memory, so the constraint index can be built without a database.
+ */
+@Vetoed
+public class InMemoryStoreProductWarehouseRepository extends StoreProductWarehouseRepository {
+
+    private final List<Object[]> keys = new ArrayList<>();
+
+    public void add(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        keys.add(new Object[] {storeId, productId, warehouseBusinessUnitCode});
+    }
+
+    @Override
+    public List<Object[]> listAllKeys() {
+        return keys;
+    }
+
+    public FulfillmentConstraintIndex newConstraintIndex() {
+        FulfillmentConstraintIndex index = new FulfillmentConstraintIndex();
+        index.fulfillmentRepository = this;
+        return index;
+    }
+}
@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.fulfillment.domain.usecases;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FulfillmentUseCaseBenchmark {
+
+    private StoreProductWarehouse association;
+
+    @Setup
+    public void setUp() {
+        association = new StoreProductWarehouse(1L, 1L, "MWH.001");
+        association.id = 1L;
+        association.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public FulfillmentAssociationResponse toResponse() {
+        return FulfillmentUseCase.toResponse(association);
+    }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LocationGatewayBenchmark {
+
+  private final LocationGateway gateway = new LocationGateway();
+
+  // not constants, so the lookups cannot be folded away
+  private String knownIdentifier = "AMSTERDAM-001";
+  private String unknownIdentifier = "ROTTERDAM-001";
+
+  @Benchmark
+  public Location resolveKnownIdentifier() {
+    return gateway.resolveByIdentifier(knownIdentifier);
+  }
+
+  @Benchmark
+  public Location resolveUnknownIdentifier() {
+    return gateway.resolveByIdentifier(unknownIdentifier);
+  }
+}
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DbWarehouseBenchmark {
+
+  private Warehouse warehouse;
+  private DbWarehouse dbWarehouse;
+
+  @Setup
+  public void setUp() {
+    warehouse = new Warehouse();
+    warehouse.businessUnitCode = "MWH.001";
+    warehouse.location = "ZWOLLE-001";
+    warehouse.capacity = 100;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.now();
+
+    dbWarehouse = DbWarehouse.fromWarehouse(warehouse);
+  }
+
+  @Benchmark
+  public Warehouse toWarehouse() {
+    return dbWarehouse.toWarehouse();
+  }
+
+  // includes generating the random UUID of the new row
+  @Benchmark
+  public DbWarehouse fromWarehouse() {
+    return DbWarehouse.fromWarehouse(warehouse);
+  }
+}
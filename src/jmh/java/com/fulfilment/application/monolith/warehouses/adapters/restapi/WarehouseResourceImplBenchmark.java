@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WarehouseResourceImplBenchmark {
+
+  private final WarehouseResourceImpl resource = new WarehouseResourceImpl();
+
+  private Warehouse warehouse;
+
+  @Setup
+  public void setUp() {
+    warehouse = new Warehouse();
+    warehouse.id = "1";
+    warehouse.businessUnitCode = "MWH.001";
+    warehouse.location = "ZWOLLE-001";
+    warehouse.capacity = 100;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.now();
+  }
+
+  @Benchmark
+  public com.warehouse.api.beans.Warehouse toWarehouseResponse() {
+    return resource.toWarehouseResponse(warehouse);
+  }
+}
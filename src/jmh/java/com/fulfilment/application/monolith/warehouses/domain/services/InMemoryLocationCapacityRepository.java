@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.warehouses.domain.services;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationCapacityRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationCapacity;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.enterprise.inject.Vetoed;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Location totals held in memory, without the row locks of the database.
+ */
+@Vetoed
+public class InMemoryLocationCapacityRepository extends LocationCapacityRepository {
+
+    private final Map<String, LocationCapacity> capacitiesByLocation = new HashMap<>();
+
+    public void add(Warehouse warehouse) {
+        adjust(warehouse.location, 1, warehouse.capacity);
+    }
+
+    @Override
+    public Map<String, LocationCapacity> lock(Collection<String> locations) {
+        Map<String, LocationCapacity> capacities = new HashMap<>();
+        for (String location : locations) {
+            capacities.put(location, capacitiesByLocation.getOrDefault(location, new LocationCapacity(location, 0, 0)));
+        }
+        return capacities;
+    }
+
+    @Override
+    public void adjust(String location, int warehouses, int capacity) {
+        LocationCapacity current = capacitiesByLocation.getOrDefault(location, new LocationCapacity(location, 0, 0));
+        capacitiesByLocation.put(location, new LocationCapacity(
+                location, current.warehouseCount() + warehouses, current.totalCapacity() + capacity));
+    }
+}
@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.warehouses.domain.services;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.enterprise.inject.Vetoed;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Active warehouses held in memory, answering the queries the validation service makes.
+ */
+@Vetoed
+public class InMemoryWarehouseRepository extends WarehouseRepository {
+
+    private final Map<String, Warehouse> warehousesByCode = new HashMap<>();
+
+    public void add(Warehouse warehouse) {
+        warehousesByCode.put(warehouse.businessUnitCode, warehouse);
+    }
+
+    @Override
+    public List<Warehouse> getAll() {
+        return List.copyOf(warehousesByCode.values());
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCode(String buCode) {
+        return warehousesByCode.get(buCode);
+    }
+
+    @Override
+    public Warehouse findActiveByBusinessUnitCode(String buCode) {
+        return warehousesByCode.get(buCode);
+    }
+
+    @Override
+    public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+        Set<String> active = new HashSet<>();
+        for (String buCode : buCodes) {
+            if (warehousesByCode.containsKey(buCode)) {
+                active.add(buCode);
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public boolean existsByBusinessUnitCode(String businessUnitCode) {
+        return warehousesByCode.containsKey(businessUnitCode);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.warehouses.domain.services;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.InMemoryStoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The validation rules against an in-memory warehouse store and constraint index, so the numbers show the
+ * cost of the rules themselves and not of the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WarehouseValidationServiceBenchmark {
+
+    private static final int STORES = 1_000;
+    private static final int WAREHOUSES = 200;
+    private static final int BATCH_SIZE = 100;
+
+    // VETSBY-001 is kept free so that a warehouse can still be created there
+    private static final String[] LOCATIONS = {
+            "ZWOLLE-001", "ZWOLLE-002", "AMSTERDAM-001", "AMSTERDAM-002",
+            "TILBURG-001", "HELMOND-001", "EINDHOVEN-001"
+    };
+
+    private WarehouseValidationService validationService;
+
+    private List<StoreProductWarehouse> batch;
+
+    @Setup
+    public void setUp() {
+        InMemoryWarehouseRepository warehouseRepository = new InMemoryWarehouseRepository();
+        InMemoryLocationCapacityRepository locationCapacityRepository = new InMemoryLocationCapacityRepository();
+        for (int i = 0; i < 2 * WAREHOUSES; i++) {
+            Warehouse warehouse = new Warehouse();
+            warehouse.businessUnitCode = warehouseCode(i);
+            warehouse.location = LOCATIONS[i % LOCATIONS.length];
+            warehouse.capacity = 40;
+            warehouse.stock = 10;
+            warehouseRepository.add(warehouse);
+            locationCapacityRepository.add(warehouse);
+        }
+
+        // every store is served by three of the first WAREHOUSES warehouses, the others stay empty
+        InMemoryStoreProductWarehouseRepository fulfillmentRepository = new InMemoryStoreProductWarehouseRepository();
+        for (long storeId = 1; storeId <= STORES; storeId++) {
+            for (int i = 0; i < 3; i++) {
+                fulfillmentRepository.add(storeId, storeId % 50 + i, warehouseCode((int) (storeId + i) % WAREHOUSES));
+            }
+        }
+
+        validationService = new WarehouseValidationService();
+        validationService.warehouseRepository = warehouseRepository;
+        validationService.locationCapacityRepository = locationCapacityRepository;
+        validationService.locationResolver = new LocationGateway();
+        validationService.constraintIndex = fulfillmentRepository.newConstraintIndex();
+        validationService.meterRegistry = new SimpleMeterRegistry();
+        validationService.registerMetrics();
+
+        // new stores with two products each, all of them acceptable
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long storeId = STORES + 1 + i / 2;
+            batch.add(new StoreProductWarehouse(storeId, (long) i, warehouseCode(WAREHOUSES + i)));
+        }
+    }
+
+    @Benchmark
+    public void validateAcceptedAssociation() {
+        validationService.validateFulfillmentAssociation((long) STORES + 1, 1L, warehouseCode(WAREHOUSES));
+    }
+
+    // the association already exists, so this measures the rejection including the exception
+    @Benchmark
+    public String validateRejectedAssociation() {
+        try {
+            validationService.validateFulfillmentAssociation(1L, 1L, warehouseCode(1));
+            return null;
+        } catch (WarehouseValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<String> validateBatch() {
+        return validationService.validateFulfillmentAssociations(batch);
+    }
+
+    @Benchmark
+    public void validateCapacityAndStock() {
+        validationService.validateCapacityAndStock(30, 10, "AMSTERDAM-001");
+    }
+
+    @Benchmark
+    public void validateWarehouseCreationFeasibility() {
+        validationService.validateWarehouseCreationFeasibility("VETSBY-001", 40);
+    }
+
+    private static String warehouseCode(int number) {
+        return "MWH." + number;
+    }
+}
@@ -0,0 +1,240 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mix of about 80% reads, association churn and warehouse replacements against the running
+ * application with a fixed number of closed-loop workers, then reports latency percentiles and throughput
+ * per operation.
+ *
+ * <p>Tuned with system properties: {@code loadtest.duration} and {@code loadtest.warmup} in seconds,
+ * {@code loadtest.concurrency}, {@code loadtest.report} for the JSON report path and {@code loadtest.build}
+ * to label the report.
+ */
+@QuarkusTest
+@QuarkusTestResource(value = EmbeddedPostgresResource.class, restrictToAnnotatedClass = true)
+public class ApplicationLoadTest {
+
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup", 10);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final String REPORT_PATH = System.getProperty("loadtest.report", "target/load-test-report.json");
+    private static final String BUILD = System.getProperty("loadtest.build", "unknown");
+
+    // seeded by the repeatable migration db/test-data/R__test_data.sql
+    private static final long[] STORE_IDS = {1, 2, 3};
+    private static final long[] PRODUCT_IDS = {1, 2, 3};
+    private static final String[] WAREHOUSE_CODES = {"MWH.001", "MWH.012", "MWH.023"};
+
+    // associations are churned on these, MWH.012 is the one being replaced
+    private static final String[] CHURN_WAREHOUSE_CODES = {"MWH.001", "MWH.023"};
+    private static final String REPLACED_WAREHOUSE_CODE = "MWH.012";
+
+    @TestHTTPResource("/")
+    URL baseUrl;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<WeightedAction> mix = List.of(
+            // reads, 80%
+            new WeightedAction(10, worker -> worker.get("GET /fulfillment", "fulfillment?limit=100")),
+            new WeightedAction(15, worker -> worker.get("GET /fulfillment/store/{id}",
+                    "fulfillment/store/" + pick(STORE_IDS))),
+            new WeightedAction(15, worker -> worker.get("GET /warehouses", "warehouses")),
+            new WeightedAction(10, worker -> worker.get("GET /warehouses/{id}",
+                    "warehouses/" + pick(WAREHOUSE_CODES))),
+            new WeightedAction(10, worker -> worker.get("GET /store", "store")),
+            new WeightedAction(10, worker -> worker.get("GET /store/{id}", "store/" + pick(STORE_IDS))),
+            new WeightedAction(10, worker -> worker.get("GET /product", "product")),
+            // writes, 20%
+            new WeightedAction(14, Worker::churnAssociation),
+            new WeightedAction(6, Worker::replaceWarehouse));
+
+    @Test
+    public void sustainedMixedLoad() throws Exception {
+        List<Worker> workers = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            workers.add(new Worker(createStore("Load Test Store " + i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long warmupEnd = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+            long measureEnd = warmupEnd + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Worker worker : workers) {
+                futures.add(executor.submit(() -> worker.run(warmupEnd, measureEnd)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        for (Worker worker : workers) {
+            worker.recorders.forEach((name, recorder) ->
+                    merged.computeIfAbsent(name, n -> new LatencyRecorder()).merge(recorder));
+        }
+
+        LoadTestReport report = new LoadTestReport(BUILD, CONCURRENCY, DURATION_SECONDS, merged);
+        report.print();
+        report.write(Path.of(REPORT_PATH));
+
+        assertTrue(report.totalRequests() > 0, "No requests were measured");
+        assertEquals(0, report.serverErrors(), "Requests failed with a server error or without a response");
+    }
+
+    private long createStore(String name) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                json(URI.create(baseUrl + "store"))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"name\": \"" + name + "\", \"quantityProductsInStock\": 10}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode(), response.body());
+
+        String body = response.body();
+        int start = body.indexOf("\"id\":") + 5;
+        int end = start;
+        while (end < body.length() && Character.isDigit(body.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(body.substring(start, end));
+    }
+
+    private static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private static long pick(long[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(Worker worker) throws IOException, InterruptedException;
+    }
+
+    private record WeightedAction(int weight, Action action) {
+    }
+
+    /**
+     * One closed-loop client: sends a request, waits for the response, picks the next one. Owns a store of its
+     * own, so its association churn never runs into the limits of another worker.
+     */
+    private class Worker {
+
+        private final long storeId;
+        private final Map<String, LatencyRecorder> recorders = new TreeMap<>();
+        private boolean measuring;
+
+        Worker(long storeId) {
+            this.storeId = storeId;
+        }
+
+        void run(long warmupEnd, long measureEnd) {
+            int totalWeight = mix.stream().mapToInt(WeightedAction::weight).sum();
+
+            long now;
+            while ((now = System.nanoTime()) < measureEnd) {
+                measuring = now >= warmupEnd;
+
+                int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+                for (WeightedAction weighted : mix) {
+                    roll -= weighted.weight();
+                    if (roll < 0) {
+                        try {
+                            weighted.action().run(this);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (IOException e) {
+                            // already recorded as a request without response
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        void get(String name, String path) throws IOException, InterruptedException {
+            send(name, json(URI.create(baseUrl + path)).GET().build());
+        }
+
+        void churnAssociation() throws IOException, InterruptedException {
+            long productId = pick(PRODUCT_IDS);
+            String warehouseCode = pick(CHURN_WAREHOUSE_CODES);
+
+            int status = send("POST /fulfillment", json(URI.create(baseUrl + "fulfillment"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"storeId\": " + storeId + ", \"productId\": " + productId
+                                    + ", \"warehouseBusinessUnitCode\": \"" + warehouseCode + "\"}"))
+                    .build());
+            if (status == 201) {
+                send("DELETE /fulfillment/store/{id}/product/{id}/warehouse/{code}", json(URI.create(baseUrl
+                        + "fulfillment/store/" + storeId + "/product/" + productId + "/warehouse/" + warehouseCode))
+                        .DELETE()
+                        .build());
+            }
+        }
+
+        void replaceWarehouse() throws IOException, InterruptedException {
+            send("PUT /warehouses/{code}/replace",
+                    json(URI.create(baseUrl + "warehouses/" + REPLACED_WAREHOUSE_CODE + "/replace"))
+                            .PUT(HttpRequest.BodyPublishers.ofString(
+                                    "{\"businessUnitCode\": \"" + REPLACED_WAREHOUSE_CODE + "\", "
+                                            + "\"location\": \"AMSTERDAM-001\", \"capacity\": 100, \"stock\": 50}"))
+                            .build());
+        }
+
+        private int send(String name, HttpRequest request) throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            int status = 0;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                status = response.statusCode();
+                return status;
+            } finally {
+                if (measuring) {
+                    recorders.computeIfAbsent(name, n -> new LatencyRecorder())
+                            .record(System.nanoTime() - start, status);
+                }
+            }
+        }
+    }
+}
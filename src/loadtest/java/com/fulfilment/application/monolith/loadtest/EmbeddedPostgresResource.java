@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Starts a throwaway PostgreSQL server from the embedded binaries, so the load test needs neither Docker nor
+ * network access. The schema and test data come from the migrations, as in the other tests.
+ */
+public class EmbeddedPostgresResource implements QuarkusTestResourceLifecycleManager {
+
+    private EmbeddedPostgres postgres;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start embedded PostgreSQL", e);
+        }
+
+        return Map.of(
+                "quarkus.datasource.devservices.enabled", "false",
+                "quarkus.datasource.jdbc.url", postgres.getJdbcUrl("postgres", "postgres"),
+                // only used when the reactive fulfillment path is built in
+                "quarkus.datasource.reactive.url", "postgresql://localhost:" + postgres.getPort() + "/postgres",
+                "quarkus.datasource.username", "postgres",
+                "quarkus.datasource.password", "postgres",
+                // per-statement logging would dominate the measurements
+                "quarkus.hibernate-orm.log.sql", "false",
+                "quarkus.log.category.\"org.hibernate.SQL\".level", "INFO",
+                "store-outbox.relay.enabled", "true");
+    }
+
+    @Override
+    public void stop() {
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to stop embedded PostgreSQL", e);
+            }
+        }
+    }
+}
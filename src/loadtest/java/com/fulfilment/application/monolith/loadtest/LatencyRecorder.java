@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and response statuses of one operation. Each worker thread records into its own instance, the
+ * instances are merged once the run is over, so recording never contends.
+ */
+class LatencyRecorder {
+
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+
+    // HTTP status, or 0 for requests that failed without a response
+    private final Map<Integer, Integer> statusCounts = new TreeMap<>();
+
+    void record(long latencyNanos, int status) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        statusCounts.merge(status, 1, Integer::sum);
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count + other.count);
+        }
+        System.arraycopy(other.latenciesNanos, 0, latenciesNanos, count, other.count);
+        count += other.count;
+        other.statusCounts.forEach((status, n) -> statusCounts.merge(status, n, Integer::sum));
+    }
+
+    int count() {
+        return count;
+    }
+
+    Map<Integer, Integer> statusCounts() {
+        return statusCounts;
+    }
+
+    /**
+     * @return the latencies in ascending order
+     */
+    long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
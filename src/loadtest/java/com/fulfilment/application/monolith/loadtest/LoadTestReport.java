@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency percentiles and throughput per operation, printed as a table and written as JSON so that the
+ * numbers of different builds can be compared by a script.
+ */
+class LoadTestReport {
+
+    private final String build;
+    private final int concurrency;
+    private final double measuredSeconds;
+    private final Map<String, LatencyRecorder> recorders;
+
+    LoadTestReport(String build, int concurrency, double measuredSeconds, Map<String, LatencyRecorder> recorders) {
+        this.build = build;
+        this.concurrency = concurrency;
+        this.measuredSeconds = measuredSeconds;
+        this.recorders = recorders;
+    }
+
+    long totalRequests() {
+        return recorders.values().stream().mapToLong(LatencyRecorder::count).sum();
+    }
+
+    /**
+     * @return the number of requests answered with a 5xx or not answered at all
+     */
+    long serverErrors() {
+        return recorders.values().stream()
+                .flatMap(recorder -> recorder.statusCounts().entrySet().stream())
+                .filter(entry -> entry.getKey() == 0 || entry.getKey() >= 500)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    void print() {
+        System.out.printf("%nLoad test of build %s, %d workers, %.1f s measured%n", build, concurrency, measuredSeconds);
+        System.out.printf("%-60s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses");
+        recorders.forEach((name, recorder) -> {
+            long[] sorted = recorder.sortedLatencies();
+            System.out.printf("%-60s %9d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    name, recorder.count(), recorder.count() / measuredSeconds,
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                    percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0),
+                    recorder.statusCounts());
+        });
+        System.out.printf("%-60s %9d %9.1f%n%n", "total", totalRequests(), totalRequests() / measuredSeconds);
+    }
+
+    void write(Path path) throws IOException {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        recorders.forEach((name, recorder) -> {
+            long[] sorted = recorder.sortedLatencies();
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", percentileMillis(sorted, 0.50));
+            latency.put("p99", percentileMillis(sorted, 0.99));
+            latency.put("p999", percentileMillis(sorted, 0.999));
+            latency.put("max", percentileMillis(sorted, 1.0));
+
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("name", name);
+            operation.put("requests", recorder.count());
+            operation.put("throughputPerSecond", recorder.count() / measuredSeconds);
+            operation.put("latencyMillis", latency);
+            operation.put("statusCounts", recorder.statusCounts());
+            operations.add(operation);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("build", build);
+        report.put("finishedAt", Instant.now().toString());
+        report.put("concurrency", concurrency);
+        report.put("measuredSeconds", measuredSeconds);
+        report.put("totalRequests", totalRequests());
+        report.put("throughputPerSecond", totalRequests() / measuredSeconds);
+        report.put("operations", operations);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    // nearest-rank percentile
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+}
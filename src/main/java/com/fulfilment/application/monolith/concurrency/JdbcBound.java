@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts the calls to a blocking resource under the concurrency limit of {@link JdbcConcurrencyLimit}, through {@link JdbcBoundInterceptor}.
+ */
+@Inherited
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JdbcBound {
+}
@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Runs the calls to a {@link JdbcBound} resource under the one {@link JdbcConcurrencyLimit} of the application;
+ * an interceptor instance belongs to a single resource instance, so the limit cannot live here.
+ */
+@JdbcBound
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class JdbcBoundInterceptor {
+
+  @Inject
+  JdbcConcurrencyLimit limit;
+
+  @AroundInvoke
+  Object limit(InvocationContext context) throws Exception {
+    return limit.limit(context);
+  }
+}
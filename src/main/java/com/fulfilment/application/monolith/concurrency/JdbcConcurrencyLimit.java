@@ -0,0 +1,114 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the requests the {@link JdbcBound} resources handle at once, and so the JDBC work they do. At most
+ * {@code blocking-requests.max-concurrent} calls run; up to {@code blocking-requests.max-queued} more wait for
+ * a slot, each for at most {@code blocking-requests.max-wait}. A call arriving while the queue is full, or
+ * still waiting when its time is up, is rejected with 503 and holds no thread after that.
+ *
+ * <p>Unlike the connection pool, which only limits the connections held at a given moment, this also bounds
+ * the worker threads parked waiting for one. The body of a streamed response is written after the resource
+ * method has returned, so its queries run outside the limit.
+ */
+@ApplicationScoped
+public class JdbcConcurrencyLimit {
+
+  private static final RequestRejectedException OVERLOADED = RequestRejectedException.preallocated(
+          "Too many concurrent requests, try again later", Response.Status.SERVICE_UNAVAILABLE);
+
+  // set while the current thread holds a permit
+  private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+  @ConfigProperty(name = "blocking-requests.max-concurrent", defaultValue = "16")
+  int maxConcurrent;
+
+  @ConfigProperty(name = "blocking-requests.max-queued", defaultValue = "64")
+  int maxQueued;
+
+  @ConfigProperty(name = "blocking-requests.max-wait", defaultValue = "5s")
+  Duration maxWait;
+
+  @Inject
+  MeterRegistry meterRegistry;
+
+  private Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong rejected = new AtomicLong();
+
+  @PostConstruct
+  void createPermits() {
+    permits = new Semaphore(maxConcurrent, true);
+    if (meterRegistry != null) {
+      Gauge.builder("blocking.requests.active", this, limit -> limit.maxConcurrent - limit.permits.availablePermits())
+              .description("Requests to the blocking resources running")
+              .register(meterRegistry);
+      Gauge.builder("blocking.requests.queued", queued, AtomicInteger::get)
+              .description("Requests to the blocking resources waiting for a slot")
+              .register(meterRegistry);
+      FunctionCounter.builder("blocking.requests.rejected", rejected, AtomicLong::get)
+              .description("Requests to the blocking resources rejected with 503")
+              .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Proceeds with the call once a slot is free.
+   *
+   * @throws RequestRejectedException with 503 when no slot frees in time or too many calls wait already
+   */
+  Object limit(InvocationContext context) throws Exception {
+    // a resource calling another through its proxy already holds a permit
+    if (Boolean.TRUE.equals(HOLDING.get())) {
+      return context.proceed();
+    }
+
+    acquire();
+    HOLDING.set(Boolean.TRUE);
+    try {
+      return context.proceed();
+    } finally {
+      HOLDING.remove();
+      permits.release();
+    }
+  }
+
+  private void acquire() throws InterruptedException {
+    if (permits.tryAcquire()) {
+      return;
+    }
+
+    if (queued.incrementAndGet() > maxQueued) {
+      queued.decrementAndGet();
+      throw reject();
+    }
+    try {
+      if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw reject();
+      }
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  private RequestRejectedException reject() {
+    rejected.incrementAndGet();
+    return OVERLOADED;
+  }
+}
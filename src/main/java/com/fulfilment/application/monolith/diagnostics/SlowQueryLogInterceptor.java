@@ -0,0 +1,83 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The slow-query log, in place of logging every statement. A repository call taking at least
+ * {@code repository.slow-query.threshold} is logged as a warning, and a {@code repository.slow-query.sample-rate}
+ * share of the other calls at info level, each with the repository method, its arguments (the values the
+ * query is run with), the time it took and the SQL it prepared.
+ *
+ * <p>Runs outside the call's transaction, so the time includes the flush and commit of a transactional method.
+ * Statements of nested repository calls are reported with the outermost call.
+ */
+@QueryLogged
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class SlowQueryLogInterceptor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLogInterceptor.class);
+
+  private static final int MAX_ARGUMENTS_LENGTH = 200;
+
+  @ConfigProperty(name = "repository.slow-query.threshold", defaultValue = "500ms")
+  Duration threshold;
+
+  @ConfigProperty(name = "repository.slow-query.sample-rate", defaultValue = "0")
+  double sampleRate;
+
+  @AroundInvoke
+  Object log(InvocationContext context) throws Exception {
+    StatementRecorder.Recording recording = StatementRecorder.start();
+    if (recording == null) {
+      return context.proceed();
+    }
+
+    long start = System.nanoTime();
+    try {
+      return context.proceed();
+    } finally {
+      long elapsedNanos = System.nanoTime() - start;
+      recording.stop();
+
+      if (elapsedNanos >= threshold.toNanos()) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("Slow query {} took {} ms: {}", call(context), elapsedNanos / 1_000_000, statements(recording));
+        }
+      } else if (sampleRate > 0 && LOGGER.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+        LOGGER.info("Query {} took {} ms: {}", call(context), elapsedNanos / 1_000_000, statements(recording));
+      }
+    }
+  }
+
+  // StoreProductWarehouseRepository.findByStore(1)
+  static String call(InvocationContext context) {
+    Class<?> repository = context.getTarget().getClass();
+    if (repository.getName().endsWith("_Subclass")) {
+      repository = repository.getSuperclass();
+    }
+
+    String arguments = Arrays.deepToString(context.getParameters());
+    arguments = arguments.substring(1, arguments.length() - 1);
+    if (arguments.length() > MAX_ARGUMENTS_LENGTH) {
+      arguments = arguments.substring(0, MAX_ARGUMENTS_LENGTH) + "...";
+    }
+    return repository.getSimpleName() + "." + context.getMethod().getName() + "(" + arguments + ")";
+  }
+
+  private static String statements(StatementRecorder.Recording recording) {
+    if (recording.count() <= recording.statements().size()) {
+      return recording.statements().toString();
+    }
+    return recording.statements() + " and " + (recording.count() - recording.statements().size()) + " more";
+  }
+}
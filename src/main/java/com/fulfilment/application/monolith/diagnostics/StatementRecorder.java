@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the SQL Hibernate prepares on the current thread while a repository call logged by
+ * {@link SlowQueryLogInterceptor} runs. Outside such a call a statement costs one thread-local read.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class StatementRecorder implements StatementInspector {
+
+  // enough to tell what a call did; a call preparing more statements is summarized by its count
+  static final int MAX_STATEMENTS = 10;
+
+  private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    Recording recording = CURRENT.get();
+    if (recording != null) {
+      recording.add(sql);
+    }
+    return sql;
+  }
+
+  /**
+   * Starts recording the statements of the current thread, or returns {@code null} when a recording is already
+   * running there; the statements of nested repository calls belong to the outermost one.
+   */
+  static Recording start() {
+    if (CURRENT.get() != null) {
+      return null;
+    }
+    Recording recording = new Recording();
+    CURRENT.set(recording);
+    return recording;
+  }
+
+  static final class Recording {
+    private final List<String> statements = new ArrayList<>(4);
+    private int count;
+
+    private void add(String sql) {
+      if (count++ < MAX_STATEMENTS) {
+        statements.add(sql);
+      }
+    }
+
+    /**
+     * Ends the recording on the current thread.
+     */
+    void stop() {
+      CURRENT.remove();
+    }
+
+    List<String> statements() {
+      return statements;
+    }
+
+    int count() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.errors;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The error path shared by the exception mappers. Every error gets the same body,
+ * {@code {"exceptionType":..., "code":..., "error":...}}, with the status of a {@link WebApplicationException}
+ * or 500 for anything else.
+ *
+ * <p>Server errors are logged with their stack trace. Client errors are expected under normal traffic, so only
+ * one in {@value #CLIENT_ERROR_LOG_SAMPLE} is logged, at debug level and without a stack trace.
+ */
+public final class ErrorResponses {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ErrorResponses.class);
+
+  static final int CLIENT_ERROR_LOG_SAMPLE = 100;
+
+  // clients have always seen this type for rejected requests; the stackless subclass is an implementation detail
+  private static final String REJECTED_TYPE = WebApplicationException.class.getName();
+
+  private static final AtomicLong clientErrors = new AtomicLong();
+
+  private ErrorResponses() {
+  }
+
+  public static Response toResponse(ObjectMapper objectMapper, Exception exception) {
+    int code = exception instanceof WebApplicationException webException
+            ? webException.getResponse().getStatus()
+            : 500;
+    log(code, exception);
+
+    if (exception instanceof RequestRejectedException rejected && rejected.body() != null) {
+      return Response.status(code).entity(rejected.body()).type(MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    ObjectNode exceptionJson = objectMapper.createObjectNode();
+    exceptionJson.put("exceptionType", typeOf(exception));
+    exceptionJson.put("code", code);
+    if (exception.getMessage() != null) {
+      exceptionJson.put("error", exception.getMessage());
+    }
+    return Response.status(code).entity(exceptionJson).type(MediaType.APPLICATION_JSON_TYPE).build();
+  }
+
+  static String render(int code, String message) {
+    StringBuilder json = new StringBuilder(64)
+            .append("{\"exceptionType\":\"").append(REJECTED_TYPE)
+            .append("\",\"code\":").append(code);
+    if (message != null) {
+      json.append(",\"error\":\"");
+      JsonStringEncoder.getInstance().quoteAsString(message, json);
+      json.append('"');
+    }
+    return json.append('}').toString();
+  }
+
+  private static String typeOf(Exception exception) {
+    return exception instanceof RequestRejectedException ? REJECTED_TYPE : exception.getClass().getName();
+  }
+
+  private static void log(int code, Exception exception) {
+    if (code >= 500) {
+      LOGGER.error("Failed to handle request", exception);
+    } else if (LOGGER.isDebugEnabled() && clientErrors.getAndIncrement() % CLIENT_ERROR_LOG_SAMPLE == 0) {
+      LOGGER.debug("Rejected request with {} ({}): {}", code, exception.getClass().getSimpleName(),
+              exception.getMessage());
+    }
+  }
+}
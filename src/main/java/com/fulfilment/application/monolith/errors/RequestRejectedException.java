@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.errors;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * A request the application turns down with a client error, such as an unknown id or an invalid field. These
+ * are expected outcomes rather than failures, so no stack trace is captured when one is created.
+ *
+ * <p>Errors whose message never changes can be created once with {@link #preallocated}, which also renders
+ * their JSON body up front; being immutable and stackless, the same instance can be thrown by any number of
+ * requests.
+ */
+public class RequestRejectedException extends WebApplicationException {
+
+  private final String body;
+
+  public RequestRejectedException(String message, Response.Status status) {
+    this(message, status.getStatusCode());
+  }
+
+  public RequestRejectedException(String message, int status) {
+    super(message, status);
+    this.body = null;
+  }
+
+  private RequestRejectedException(String message, int status, String body) {
+    super(message, status);
+    this.body = body;
+  }
+
+  public static RequestRejectedException preallocated(String message, Response.Status status) {
+    return preallocated(message, status.getStatusCode());
+  }
+
+  public static RequestRejectedException preallocated(String message, int status) {
+    return new RequestRejectedException(message, status, ErrorResponses.render(status, message));
+  }
+
+  // the JSON body rendered when the exception was created, or null when it is rendered per response
+  String body() {
+    return body;
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,326 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationCreatedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationDeletedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationsDeletedEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of the store_product_warehouse table used to answer the fulfillment constraint checks
+ * without going to the database.
+ *
+ * <p>The index is built lazily from the table on first use and then kept up to date from the association
+ * events fired by {@link StoreProductWarehouseRepository}. Those events are observed {@code AFTER_SUCCESS},
+ * so writes of a transaction that rolls back never reach the index. Applying an event is idempotent, which
+ * keeps the index correct when a commit races with the initial load.
+ */
+@ApplicationScoped
+public class FulfillmentConstraintIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FulfillmentConstraintIndex.class);
+
+    @Inject
+    StoreProductWarehouseRepository fulfillmentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // storeId -> productId -> warehouse codes; also the membership set of all associations
+    private final Map<Long, Map<Long, Set<String>>> warehousesByStoreAndProduct = new HashMap<>();
+
+    // storeId -> warehouse code -> number of associations between them
+    private final Map<Long, Map<String, Integer>> warehousesByStore = new HashMap<>();
+
+    // warehouse code -> productId -> number of associations between them
+    private final Map<String, Map<Long, Integer>> productsByWarehouse = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public boolean exists(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Set<String> warehouses = warehousesFor(storeId, productId);
+            return warehouses != null && warehouses.contains(warehouseBusinessUnitCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countByStoreAndProduct(Long storeId, Long productId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Set<String> warehouses = warehousesFor(storeId, productId);
+            return warehouses != null ? warehouses.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The warehouses associated with the store for the product, as a copy the caller may keep.
+     */
+    public Set<String> findWarehouses(Long storeId, Long productId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Set<String> warehouses = warehousesFor(storeId, productId);
+            return warehouses != null ? Set.copyOf(warehouses) : Set.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The number of the store's products the warehouse is associated with.
+     */
+    public int countAssociations(Long storeId, String warehouseBusinessUnitCode) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> warehouses = warehousesByStore.get(storeId);
+            return warehouses != null ? warehouses.getOrDefault(warehouseBusinessUnitCode, 0) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countDistinctWarehousesByStore(Long storeId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> warehouses = warehousesByStore.get(storeId);
+            return warehouses != null ? warehouses.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isWarehouseAssociatedWithStore(Long storeId, String warehouseBusinessUnitCode) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> warehouses = warehousesByStore.get(storeId);
+            return warehouses != null && warehouses.containsKey(warehouseBusinessUnitCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countProductsByWarehouse(String warehouseBusinessUnitCode) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> products = productsByWarehouse.get(warehouseBusinessUnitCode);
+            return products != null ? products.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isProductInWarehouse(String warehouseBusinessUnitCode, Long productId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> products = productsByWarehouse.get(warehouseBusinessUnitCode);
+            return products != null && products.containsKey(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index has been built. Callers that must not block, such as the reactive fulfillment path,
+     * check this and run {@link #load()} on a worker thread first when it has not.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Builds the index from the database unless that has already happened. Reads through JDBC, so it needs a
+     * thread that may block and a transaction.
+     */
+    public void load() {
+        ensureLoaded();
+    }
+
+    /**
+     * Drops the index so that it is rebuilt from the database on next use. Needed after writes that bypass
+     * the repository events, such as bulk deletes.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces what the index holds for the given stores and warehouses with {@code keys}, the (storeId,
+     * productId, warehouseBusinessUnitCode) of every association of those stores or warehouses as read from the
+     * database. Used under {@link FulfillmentLocks} when several nodes write, so the checks for the locked keys
+     * also see what the other nodes committed. Does nothing before the index is loaded, as loading reads it all.
+     */
+    public void refresh(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes, List<Object[]> keys) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+
+            // Every association of the stores, and every association of any store at the warehouses, is dropped
+            // through remove() and the ones read back are added through add(), so the three maps change together.
+            Set<Long> stores = Set.copyOf(storeIds);
+            Set<String> codes = Set.copyOf(warehouseBusinessUnitCodes);
+            List<Object[]> stale = new ArrayList<>();
+            warehousesByStoreAndProduct.forEach((storeId, products) -> {
+                boolean wholeStore = stores.contains(storeId);
+                if (!wholeStore && Collections.disjoint(warehousesByStore.getOrDefault(storeId, Map.of()).keySet(), codes)) {
+                    return;
+                }
+                products.forEach((productId, warehouses) -> warehouses.forEach(code -> {
+                    if (wholeStore || codes.contains(code)) {
+                        stale.add(new Object[] {storeId, productId, code});
+                    }
+                }));
+            });
+            stale.forEach(key -> remove((Long) key[0], (Long) key[1], (String) key[2]));
+
+            for (Object[] key : keys) {
+                add((Long) key[0], (Long) key[1], (String) key[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onAssociationCreated(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) FulfillmentAssociationCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                add(event.getStoreId(), event.getProductId(), event.getWarehouseBusinessUnitCode());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onAssociationDeleted(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) FulfillmentAssociationDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                remove(event.getStoreId(), event.getProductId(), event.getWarehouseBusinessUnitCode());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the index cannot tell which entries a set-based delete removed, so it is rebuilt on next use
+    void onAssociationsDeleted(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) FulfillmentAssociationsDeletedEvent event) {
+        LOGGER.info("{} associations with {} {} deleted, fulfillment constraint index dropped",
+                event.getDeleted(), event.getField(), event.getValue());
+        invalidate();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clear();
+                List<Object[]> keys = fulfillmentRepository.listAllKeys();
+                for (Object[] key : keys) {
+                    add((Long) key[0], (Long) key[1], (String) key[2]);
+                }
+                loaded = true;
+                LOGGER.info("Fulfillment constraint index loaded with {} associations", keys.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<String> warehousesFor(Long storeId, Long productId) {
+        Map<Long, Set<String>> products = warehousesByStoreAndProduct.get(storeId);
+        return products != null ? products.get(productId) : null;
+    }
+
+    private void add(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        boolean added = warehousesByStoreAndProduct
+                .computeIfAbsent(storeId, id -> new HashMap<>())
+                .computeIfAbsent(productId, id -> new HashSet<>())
+                .add(warehouseBusinessUnitCode);
+
+        if (added) {
+            warehousesByStore
+                    .computeIfAbsent(storeId, id -> new HashMap<>())
+                    .merge(warehouseBusinessUnitCode, 1, Integer::sum);
+            productsByWarehouse
+                    .computeIfAbsent(warehouseBusinessUnitCode, code -> new HashMap<>())
+                    .merge(productId, 1, Integer::sum);
+        }
+    }
+
+    private void remove(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        Map<Long, Set<String>> products = warehousesByStoreAndProduct.get(storeId);
+        Set<String> warehouses = products != null ? products.get(productId) : null;
+        if (warehouses == null || !warehouses.remove(warehouseBusinessUnitCode)) {
+            return;
+        }
+
+        if (warehouses.isEmpty()) {
+            products.remove(productId);
+            if (products.isEmpty()) {
+                warehousesByStoreAndProduct.remove(storeId);
+            }
+        }
+
+        decrement(warehousesByStore, storeId, warehouseBusinessUnitCode);
+        decrement(productsByWarehouse, warehouseBusinessUnitCode, productId);
+    }
+
+    private static <K, V> void decrement(Map<K, Map<V, Integer>> counts, K outerKey, V innerKey) {
+        Map<V, Integer> inner = counts.get(outerKey);
+        if (inner == null) {
+            return;
+        }
+
+        inner.computeIfPresent(innerKey, (key, count) -> count > 1 ? count - 1 : null);
+        if (inner.isEmpty()) {
+            counts.remove(outerKey);
+        }
+    }
+
+    private void clear() {
+        warehousesByStoreAndProduct.clear();
+        warehousesByStore.clear();
+        productsByWarehouse.clear();
+    }
+}
@@ -0,0 +1,322 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_PRODUCTS_PER_WAREHOUSE;
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_WAREHOUSES_PER_PRODUCT_PER_STORE;
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_WAREHOUSES_PER_STORE;
+
+/**
+ * The counts the fulfillment limits are about, kept in the store_product_warehouse_count, store_warehouse_count
+ * and warehouse_product_count tables so that reading one is a primary-key lookup rather than an aggregate over
+ * store_product_warehouse.
+ *
+ * <p>{@link StoreProductWarehouseRepository} and its reactive counterpart update the counts in the transaction
+ * that inserts or deletes the associations. An insert raises them with conditional upserts that only apply while
+ * the count stays within its limit. When one does not apply, the insert is rejected and its transaction rolls
+ * back, so the limits hold in the database whatever the checks before the insert saw.
+ *
+ * <p>Whether a store already uses a warehouse, or a warehouse already has a product, decides whether the
+ * distinct counts change. Every write first locks the store_warehouse_count rows of its stores and the
+ * warehouse_product_count rows of its warehouses, creating them when missing, and only then looks at
+ * store_product_warehouse. A concurrent write for the same store or warehouse waits for that lock, so under READ
+ * COMMITTED it sees the associations the other one committed. This keeps the counts exact across nodes without
+ * {@link FulfillmentLocks}. The locks are taken stores first, then warehouses, each in key order, so two writes
+ * cannot deadlock on them.
+ */
+@ApplicationScoped
+@QueryLogged
+public class FulfillmentCounters {
+
+    // Parameters are positional so the reactive repository can run the same statements with $n placeholders.
+    // The casts type the parameters for the reactive client, which leaves them to the server to infer.
+    // The upserts leave the count alone and report no row when the delta would take it over the limit.
+
+    static final String ADD_WAREHOUSES_FOR_PRODUCT =
+            "INSERT INTO store_product_warehouse_count AS c (store_id, product_id, warehouses)"
+                    + " SELECT CAST(?1 AS bigint), CAST(?2 AS bigint), CAST(?3 AS integer) WHERE CAST(?3 AS integer) <= CAST(?4 AS integer)"
+                    + " ON CONFLICT (store_id, product_id) DO UPDATE SET warehouses = c.warehouses + EXCLUDED.warehouses"
+                    + " WHERE c.warehouses + EXCLUDED.warehouses <= CAST(?4 AS integer)";
+
+    static final String ADD_WAREHOUSES_FOR_STORE =
+            "INSERT INTO store_warehouse_count AS c (store_id, warehouses)"
+                    + " SELECT CAST(?1 AS bigint), CAST(?2 AS integer) WHERE CAST(?2 AS integer) <= CAST(?3 AS integer)"
+                    + " ON CONFLICT (store_id) DO UPDATE SET warehouses = c.warehouses + EXCLUDED.warehouses"
+                    + " WHERE c.warehouses + EXCLUDED.warehouses <= CAST(?3 AS integer)";
+
+    static final String ADD_PRODUCTS_FOR_WAREHOUSE =
+            "INSERT INTO warehouse_product_count AS c (warehouse_business_unit_code, products)"
+                    + " SELECT CAST(?1 AS varchar), CAST(?2 AS integer) WHERE CAST(?2 AS integer) <= CAST(?3 AS integer)"
+                    + " ON CONFLICT (warehouse_business_unit_code) DO UPDATE SET products = c.products + EXCLUDED.products"
+                    + " WHERE c.products + EXCLUDED.products <= CAST(?3 AS integer)";
+
+    // Lock the count row of a store or a warehouse, inserting it at zero when missing; a no-op update locks
+    // the row whether it was there or just inserted by a transaction that has since committed.
+    static final String LOCK_STORE_COUNT =
+            "INSERT INTO store_warehouse_count AS c (store_id, warehouses) VALUES (CAST(?1 AS bigint), 0)"
+                    + " ON CONFLICT (store_id) DO UPDATE SET warehouses = c.warehouses";
+
+    static final String LOCK_WAREHOUSE_COUNT =
+            "INSERT INTO warehouse_product_count AS c (warehouse_business_unit_code, products) VALUES (CAST(?1 AS varchar), 0)"
+                    + " ON CONFLICT (warehouse_business_unit_code) DO UPDATE SET products = c.products";
+
+    // whether the store already uses the warehouse, and whether the warehouse already has the product
+    static final String FIND_EXISTING_PAIRS =
+            "SELECT EXISTS (SELECT 1 FROM store_product_warehouse WHERE store_id = ?1 AND warehouse_business_unit_code = ?3),"
+                    + " EXISTS (SELECT 1 FROM store_product_warehouse WHERE warehouse_business_unit_code = ?3 AND product_id = ?2)";
+
+    private static final Comparator<StoreProduct> STORE_PRODUCT_ORDER =
+            Comparator.comparing(StoreProduct::storeId).thenComparing(StoreProduct::productId);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Timed("repository.query")
+    public long countWarehousesForProduct(Long storeId, Long productId) {
+        return count(entityManager
+                .createNativeQuery("SELECT warehouses FROM store_product_warehouse_count WHERE store_id = ?1 AND product_id = ?2")
+                .setParameter(1, storeId)
+                .setParameter(2, productId)
+                .getResultList());
+    }
+
+    @Timed("repository.query")
+    public long countWarehousesForStore(Long storeId) {
+        return count(entityManager
+                .createNativeQuery("SELECT warehouses FROM store_warehouse_count WHERE store_id = ?1")
+                .setParameter(1, storeId)
+                .getResultList());
+    }
+
+    @Timed("repository.query")
+    public long countProductsForWarehouse(String warehouseBusinessUnitCode) {
+        return count(entityManager
+                .createNativeQuery("SELECT products FROM warehouse_product_count WHERE warehouse_business_unit_code = ?1")
+                .setParameter(1, warehouseBusinessUnitCode)
+                .getResultList());
+    }
+
+    /**
+     * Counts associations about to be inserted. Must run before they are persisted, as it looks up which of
+     * their stores and warehouses, and warehouses and products, are paired already.
+     *
+     * @throws WarehouseValidationException when a count would go over its limit
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    @Timed("repository.query")
+    public void add(List<StoreProductWarehouse> associations) {
+        if (associations.isEmpty()) {
+            return;
+        }
+
+        Set<Long> storeIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<String> warehouseCodes = new HashSet<>();
+        for (StoreProductWarehouse association : associations) {
+            storeIds.add(association.getStoreId());
+            productIds.add(association.getProductId());
+            warehouseCodes.add(association.getWarehouseBusinessUnitCode());
+        }
+        lock(storeIds, warehouseCodes);
+
+        Set<Map.Entry<Long, String>> storeWarehouses = new HashSet<>();
+        for (Object[] row : findPairs("SELECT DISTINCT store_id, warehouse_business_unit_code FROM store_product_warehouse"
+                        + " WHERE store_id IN (:storeIds) AND warehouse_business_unit_code IN (:warehouseCodes)")
+                .setParameter("storeIds", storeIds)
+                .setParameter("warehouseCodes", warehouseCodes)
+                .getResultList()) {
+            storeWarehouses.add(Map.entry(((Number) row[0]).longValue(), (String) row[1]));
+        }
+        Set<Map.Entry<String, Long>> warehouseProducts = new HashSet<>();
+        for (Object[] row : findPairs("SELECT DISTINCT warehouse_business_unit_code, product_id FROM store_product_warehouse"
+                        + " WHERE warehouse_business_unit_code IN (:warehouseCodes) AND product_id IN (:productIds)")
+                .setParameter("warehouseCodes", warehouseCodes)
+                .setParameter("productIds", productIds)
+                .getResultList()) {
+            warehouseProducts.add(Map.entry((String) row[0], ((Number) row[1]).longValue()));
+        }
+
+        // sorted, so concurrent inserts lock the counter rows in the same order
+        Map<StoreProduct, Integer> warehousesForProduct = new TreeMap<>(STORE_PRODUCT_ORDER);
+        Map<Long, Integer> warehousesForStore = new TreeMap<>();
+        Map<String, Integer> productsForWarehouse = new TreeMap<>();
+        for (StoreProductWarehouse association : associations) {
+            Long storeId = association.getStoreId();
+            Long productId = association.getProductId();
+            String warehouseCode = association.getWarehouseBusinessUnitCode();
+
+            warehousesForProduct.merge(new StoreProduct(storeId, productId), 1, Integer::sum);
+            if (storeWarehouses.add(Map.entry(storeId, warehouseCode))) {
+                warehousesForStore.merge(storeId, 1, Integer::sum);
+            }
+            if (warehouseProducts.add(Map.entry(warehouseCode, productId))) {
+                productsForWarehouse.merge(warehouseCode, 1, Integer::sum);
+            }
+        }
+
+        warehousesForProduct.forEach((key, delta) -> {
+            if (execute(ADD_WAREHOUSES_FOR_PRODUCT, "store_product_warehouse_count",
+                    key.storeId(), key.productId(), delta, MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) == 0) {
+                throw tooManyWarehousesForProduct(key.storeId(), key.productId());
+            }
+        });
+        warehousesForStore.forEach((storeId, delta) -> {
+            if (execute(ADD_WAREHOUSES_FOR_STORE, "store_warehouse_count",
+                    storeId, delta, MAX_WAREHOUSES_PER_STORE) == 0) {
+                throw tooManyWarehousesForStore(storeId);
+            }
+        });
+        productsForWarehouse.forEach((warehouseCode, delta) -> {
+            if (execute(ADD_PRODUCTS_FOR_WAREHOUSE, "warehouse_product_count",
+                    warehouseCode, delta, MAX_PRODUCTS_PER_WAREHOUSE) == 0) {
+                throw tooManyProductsForWarehouse(warehouseCode);
+            }
+        });
+    }
+
+    /**
+     * Uncounts an association that has just been deleted.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    @Timed("repository.query")
+    public void remove(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        lock(Set.of(storeId), Set.of(warehouseBusinessUnitCode));
+        execute("UPDATE store_product_warehouse_count SET warehouses = warehouses - 1"
+                        + " WHERE store_id = ?1 AND product_id = ?2",
+                "store_product_warehouse_count", storeId, productId);
+        // the distinct counts only go down when no other association pairs the two any more
+        execute("UPDATE store_warehouse_count SET warehouses = warehouses - 1 WHERE store_id = ?1 AND NOT EXISTS"
+                        + " (SELECT 1 FROM store_product_warehouse WHERE store_id = ?1 AND warehouse_business_unit_code = ?2)",
+                "store_warehouse_count", storeId, warehouseBusinessUnitCode);
+        execute("UPDATE warehouse_product_count SET products = products - 1 WHERE warehouse_business_unit_code = ?1"
+                        + " AND NOT EXISTS (SELECT 1 FROM store_product_warehouse"
+                        + " WHERE warehouse_business_unit_code = ?1 AND product_id = ?2)",
+                "warehouse_product_count", warehouseBusinessUnitCode, productId);
+    }
+
+    /**
+     * Recomputes the counts of the given stores and warehouses from store_product_warehouse, after a delete
+     * that removed an unknown number of their associations.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    @Timed("repository.query")
+    public void recount(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+        lock(storeIds, warehouseBusinessUnitCodes);
+        if (!storeIds.isEmpty()) {
+            recount("DELETE FROM store_product_warehouse_count WHERE store_id IN (:keys)",
+                    "INSERT INTO store_product_warehouse_count (store_id, product_id, warehouses)"
+                            + " SELECT store_id, product_id, COUNT(*) FROM store_product_warehouse"
+                            + " WHERE store_id IN (:keys) AND product_id IS NOT NULL GROUP BY store_id, product_id"
+                            + " ON CONFLICT (store_id, product_id) DO UPDATE SET warehouses = EXCLUDED.warehouses",
+                    "store_product_warehouse_count", storeIds);
+            recount("DELETE FROM store_warehouse_count WHERE store_id IN (:keys)",
+                    "INSERT INTO store_warehouse_count (store_id, warehouses)"
+                            + " SELECT store_id, COUNT(DISTINCT warehouse_business_unit_code) FROM store_product_warehouse"
+                            + " WHERE store_id IN (:keys) GROUP BY store_id"
+                            + " ON CONFLICT (store_id) DO UPDATE SET warehouses = EXCLUDED.warehouses",
+                    "store_warehouse_count", storeIds);
+        }
+        if (!warehouseBusinessUnitCodes.isEmpty()) {
+            recount("DELETE FROM warehouse_product_count WHERE warehouse_business_unit_code IN (:keys)",
+                    "INSERT INTO warehouse_product_count (warehouse_business_unit_code, products)"
+                            + " SELECT warehouse_business_unit_code, COUNT(DISTINCT product_id) FROM store_product_warehouse"
+                            + " WHERE warehouse_business_unit_code IN (:keys) GROUP BY warehouse_business_unit_code"
+                            + " ON CONFLICT (warehouse_business_unit_code) DO UPDATE SET products = EXCLUDED.products",
+                    "warehouse_product_count", warehouseBusinessUnitCodes);
+        }
+    }
+
+    /**
+     * Drops every count, after every association was deleted.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void clear() {
+        execute("DELETE FROM store_product_warehouse_count", "store_product_warehouse_count");
+        execute("DELETE FROM store_warehouse_count", "store_warehouse_count");
+        execute("DELETE FROM warehouse_product_count", "warehouse_product_count");
+    }
+
+    static WarehouseValidationException tooManyWarehousesForProduct(Long storeId, Long productId) {
+        return new WarehouseValidationException("Product " + productId + " in Store " + storeId
+                + " already has the maximum of " + MAX_WAREHOUSES_PER_PRODUCT_PER_STORE + " warehouses");
+    }
+
+    static WarehouseValidationException tooManyWarehousesForStore(Long storeId) {
+        return new WarehouseValidationException("Store " + storeId
+                + " already has the maximum of " + MAX_WAREHOUSES_PER_STORE + " different warehouses");
+    }
+
+    static WarehouseValidationException tooManyProductsForWarehouse(String warehouseBusinessUnitCode) {
+        return new WarehouseValidationException("Warehouse " + warehouseBusinessUnitCode
+                + " already stores the maximum of " + MAX_PRODUCTS_PER_WAREHOUSE + " different products");
+    }
+
+    /**
+     * Locks the count rows of the stores and warehouses until the transaction ends, in the order every write
+     * takes them.
+     */
+    private void lock(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+        for (Long storeId : new TreeSet<>(storeIds)) {
+            execute(LOCK_STORE_COUNT, "store_warehouse_count", storeId);
+        }
+        for (String warehouseCode : new TreeSet<>(warehouseBusinessUnitCodes)) {
+            execute(LOCK_WAREHOUSE_COUNT, "warehouse_product_count", warehouseCode);
+        }
+    }
+
+    private static long count(List<?> rows) {
+        return rows.isEmpty() ? 0 : ((Number) rows.get(0)).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object[]> findPairs(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                // flushes pending associations first, though none are expected
+                .addSynchronizedQuerySpace("store_product_warehouse");
+    }
+
+    private void recount(String deleteSql, String insertSql, String table, Collection<?> keys) {
+        entityManager.createNativeQuery(deleteSql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(table)
+                .setParameter("keys", keys)
+                .executeUpdate();
+        entityManager.createNativeQuery(insertSql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(table)
+                .setParameter("keys", keys)
+                .executeUpdate();
+    }
+
+    // the counter tables are no entity's, so naming them keeps Hibernate from flushing and evicting everything
+    private int execute(String sql, String table, Object... parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(table);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    private record StoreProduct(Long storeId, Long productId) {
+    }
+}
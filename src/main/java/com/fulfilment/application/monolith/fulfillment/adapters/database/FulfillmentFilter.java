@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Restricts a paged or streamed read of store_product_warehouse to one store, product or warehouse.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class FulfillmentFilter {
+
+    private static final FulfillmentFilter ALL = new FulfillmentFilter(null, null, null);
+
+    // entity field to match, or null to read every association
+    private final String field;
+    // the same field's column, for the reactive path which queries the table directly
+    private final String column;
+    private final Object value;
+
+    public static FulfillmentFilter all() {
+        return ALL;
+    }
+
+    public static FulfillmentFilter byStore(Long storeId) {
+        return new FulfillmentFilter("storeId", "store_id", storeId);
+    }
+
+    public static FulfillmentFilter byProduct(Long productId) {
+        return new FulfillmentFilter("productId", "product_id", productId);
+    }
+
+    public static FulfillmentFilter byWarehouse(String warehouseBusinessUnitCode) {
+        return new FulfillmentFilter("warehouseBusinessUnitCode", "warehouse_business_unit_code", warehouseBusinessUnitCode);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Serializes association creates and deletes that touch the same store or warehouse, so the constraint checks
+ * and the insert that follows them act as one step. Writes for unrelated stores and warehouses run in parallel.
+ * The {@link FulfillmentCounters} stay exact without these locks, as they lock their own rows.
+ *
+ * <p>On a node, the keys map onto a fixed set of striped locks, held until the creating transaction has
+ * committed and the {@link FulfillmentConstraintIndex} has seen the new rows. With advisory locking enabled,
+ * for several nodes or the reactive path, the transaction also takes a PostgreSQL advisory lock per key and
+ * reloads the index entries of those keys from the database before the checks run.
+ *
+ * <p>Locks are always taken in the same order, stores before warehouses and then by key, so two creates
+ * waiting on each other's keys cannot deadlock.
+ */
+@ApplicationScoped
+public class FulfillmentLocks {
+
+    // advisory lock spaces (the first argument of pg_advisory_xact_lock), one per kind of key
+    public static final int STORE_LOCK_SPACE = 0x5350_0001;
+    public static final int WAREHOUSE_LOCK_SPACE = 0x5350_0002;
+
+    private static final Comparator<LockKey> LOCK_ORDER =
+            Comparator.comparingInt(LockKey::space).thenComparingInt(LockKey::key);
+
+    @ConfigProperty(name = "fulfillment.locks.stripes", defaultValue = "256")
+    int stripeCount;
+
+    @ConfigProperty(name = "fulfillment.locks.advisory", defaultValue = "false")
+    boolean advisory;
+
+    @Inject
+    StoreProductWarehouseRepository fulfillmentRepository;
+
+    @Inject
+    FulfillmentConstraintIndex constraintIndex;
+
+    private ReentrantLock[] stripes;
+
+    @PostConstruct
+    void createStripes() {
+        // a power of two, so a key picks its stripe with a mask
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs {@code action} in a new transaction while holding the locks of the given stores and warehouses, and
+     * returns its result. The locks are released once the transaction has completed.
+     */
+    public <T> T callLocked(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes, Supplier<T> action) {
+        List<LockKey> keys = keys(storeIds, warehouseBusinessUnitCodes);
+
+        BitSet stripeIndexes = new BitSet(stripes.length);
+        for (LockKey key : keys) {
+            stripeIndexes.set(stripeIndex(key));
+        }
+
+        int locked = -1;
+        try {
+            for (int i = stripeIndexes.nextSetBit(0); i >= 0; i = stripeIndexes.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                locked = i;
+            }
+
+            return QuarkusTransaction.requiringNew().call(() -> {
+                if (advisory) {
+                    for (LockKey key : keys) {
+                        fulfillmentRepository.lockAdvisory(key.space(), key.key());
+                    }
+                    constraintIndex.refresh(storeIds, warehouseBusinessUnitCodes,
+                            fulfillmentRepository.listKeys(storeIds, warehouseBusinessUnitCodes));
+                }
+                return action.get();
+            });
+        } finally {
+            for (int i = locked; i >= 0; i = stripeIndexes.previousSetBit(i - 1)) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * The advisory lock keys of the given stores and warehouses, in the order they must be taken.
+     */
+    public static List<LockKey> keys(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+        Set<LockKey> keys = new TreeSet<>(LOCK_ORDER);
+        Stream.concat(
+                        storeIds.stream().map(storeId -> new LockKey(STORE_LOCK_SPACE, Long.hashCode(storeId))),
+                        warehouseBusinessUnitCodes.stream().map(code -> new LockKey(WAREHOUSE_LOCK_SPACE, code.hashCode())))
+                .forEach(keys::add);
+        return List.copyOf(keys);
+    }
+
+    private int stripeIndex(LockKey key) {
+        int hash = 31 * key.space() + key.key();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * A lock key. Different stores or warehouses may share a key, which only makes them wait for each other.
+     */
+    public record LockKey(int space, int key) {
+    }
+}
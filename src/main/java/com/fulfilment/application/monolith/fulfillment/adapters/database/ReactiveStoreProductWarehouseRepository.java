@@ -0,0 +1,222 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationCreatedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_PRODUCTS_PER_WAREHOUSE;
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_WAREHOUSES_PER_PRODUCT_PER_STORE;
+import static com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService.MAX_WAREHOUSES_PER_STORE;
+
+/**
+ * Non-blocking counterpart of {@link StoreProductWarehouseRepository} for the reads and inserts of the reactive
+ * fulfillment path. Queries the store_product_warehouse table through the reactive PostgreSQL client, so the
+ * calling event-loop thread is never held while the database works.
+ *
+ * <p>Ids come from the sequence Hibernate uses for the entity. Hibernate treats each sequence value as the
+ * bound of a block of ids, so a value taken here is never handed out by the blocking path as well.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "fulfillment.reactive.enabled", stringValue = "true")
+public class ReactiveStoreProductWarehouseRepository {
+
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?(\\d+)");
+
+    private static final String COLUMNS =
+            "id, store_id, product_id, warehouse_business_unit_code, created_at";
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    Event<FulfillmentAssociationCreatedEvent> associationCreatedEvent;
+
+    /**
+     * Returns the associations matching the filter, ordered by id.
+     */
+    public Multi<StoreProductWarehouse> find(FulfillmentFilter filter) {
+        if (filter.getColumn() == null) {
+            return query("SELECT " + COLUMNS + " FROM store_product_warehouse ORDER BY id", Tuple.tuple());
+        }
+        return query("SELECT " + COLUMNS + " FROM store_product_warehouse WHERE " + filter.getColumn()
+                + " = $1 ORDER BY id", Tuple.of(filter.getValue()));
+    }
+
+    /**
+     * Returns up to {@code limit} associations matching the filter with an id greater than {@code afterId},
+     * ordered by id, like {@link StoreProductWarehouseRepository#findPage}.
+     */
+    public Multi<StoreProductWarehouse> findPage(FulfillmentFilter filter, Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        if (filter.getColumn() == null) {
+            return query("SELECT " + COLUMNS + " FROM store_product_warehouse WHERE id > $1 ORDER BY id LIMIT $2",
+                    Tuple.of(after, limit));
+        }
+        return query("SELECT " + COLUMNS + " FROM store_product_warehouse WHERE " + filter.getColumn()
+                + " = $1 AND id > $2 ORDER BY id LIMIT $3", Tuple.of(filter.getValue(), after, limit));
+    }
+
+    /**
+     * Runs {@code work} in a transaction that first takes the advisory locks {@link FulfillmentLocks} takes for
+     * the store and warehouse, so it is serialized with every other create touching them, on any node and on
+     * either path. The locks are released when the transaction ends; {@code work} must use the connection given.
+     */
+    public <T> Uni<T> withAssociationLocks(
+            Long storeId, String warehouseBusinessUnitCode, Function<SqlConnection, Uni<T>> work) {
+        List<FulfillmentLocks.LockKey> keys = FulfillmentLocks.keys(Set.of(storeId), Set.of(warehouseBusinessUnitCode));
+        return client.withTransaction(connection -> {
+            Uni<Void> locked = Uni.createFrom().voidItem();
+            for (FulfillmentLocks.LockKey key : keys) {
+                locked = locked.chain(() -> connection
+                        .preparedQuery("SELECT 1 FROM pg_advisory_xact_lock($1, $2)")
+                        .execute(Tuple.of(key.space(), key.key()))
+                        .replaceWithVoid());
+            }
+            return locked.chain(() -> work.apply(connection));
+        });
+    }
+
+    /**
+     * Returns the (storeId, productId, warehouseBusinessUnitCode) key of every association of the store or the
+     * warehouse, like {@link StoreProductWarehouseRepository#listKeys}.
+     */
+    public Uni<List<Object[]>> findKeys(SqlClient client, Long storeId, String warehouseBusinessUnitCode) {
+        return client.preparedQuery("SELECT store_id, product_id, warehouse_business_unit_code"
+                        + " FROM store_product_warehouse WHERE store_id = $1 OR warehouse_business_unit_code = $2")
+                .execute(Tuple.of(storeId, warehouseBusinessUnitCode))
+                .map(rows -> {
+                    List<Object[]> keys = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        keys.add(new Object[] {
+                                row.getLong("store_id"),
+                                row.getLong("product_id"),
+                                row.getString("warehouse_business_unit_code")});
+                    }
+                    return keys;
+                });
+    }
+
+    public Uni<Boolean> isWarehouseActive(String warehouseBusinessUnitCode) {
+        return isWarehouseActive(client, warehouseBusinessUnitCode);
+    }
+
+    public Uni<Boolean> isWarehouseActive(SqlClient client, String warehouseBusinessUnitCode) {
+        return client.preparedQuery("SELECT 1 FROM warehouse WHERE businessUnitCode = $1 AND archivedAt IS NULL LIMIT 1")
+                .execute(Tuple.of(warehouseBusinessUnitCode))
+                .map(rows -> rows.size() > 0);
+    }
+
+    /**
+     * Inserts the association in a transaction of its own and assigns its id, like
+     * {@link #persist(SqlClient, StoreProductWarehouse)}, and fires {@link #created} once it has committed.
+     */
+    public Uni<StoreProductWarehouse> persist(StoreProductWarehouse association) {
+        return client.withTransaction(connection -> persist(connection, association))
+                .invoke(this::created);
+    }
+
+    /**
+     * Raises the association's {@link FulfillmentCounters} and inserts it, assigning its id. The client must be a
+     * connection in a transaction, which fails with a
+     * {@link com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException} when a
+     * count would go over its limit. The caller passes the association to {@link #created} once that transaction
+     * has committed.
+     */
+    public Uni<StoreProductWarehouse> persist(SqlClient client, StoreProductWarehouse association) {
+        Long storeId = association.getStoreId();
+        Long productId = association.getProductId();
+        String warehouseCode = association.getWarehouseBusinessUnitCode();
+
+        // the count rows are locked before the pairs are looked up, in the order FulfillmentCounters takes them
+        return client.preparedQuery(pg(FulfillmentCounters.LOCK_STORE_COUNT))
+                .execute(Tuple.of(storeId))
+                .chain(() -> client.preparedQuery(pg(FulfillmentCounters.LOCK_WAREHOUSE_COUNT))
+                        .execute(Tuple.of(warehouseCode)))
+                .chain(() -> client.preparedQuery(pg(FulfillmentCounters.FIND_EXISTING_PAIRS))
+                        .execute(Tuple.of(storeId, productId, warehouseCode)))
+                .chain(pairs -> {
+                    Row row = pairs.iterator().next();
+                    Uni<Void> counted = addCount(client, FulfillmentCounters.ADD_WAREHOUSES_FOR_PRODUCT,
+                            Tuple.of(storeId, productId, 1, MAX_WAREHOUSES_PER_PRODUCT_PER_STORE),
+                            () -> FulfillmentCounters.tooManyWarehousesForProduct(storeId, productId));
+                    if (!row.getBoolean(0)) {
+                        counted = counted.chain(() -> addCount(client, FulfillmentCounters.ADD_WAREHOUSES_FOR_STORE,
+                                Tuple.of(storeId, 1, MAX_WAREHOUSES_PER_STORE),
+                                () -> FulfillmentCounters.tooManyWarehousesForStore(storeId)));
+                    }
+                    if (!row.getBoolean(1)) {
+                        counted = counted.chain(() -> addCount(client, FulfillmentCounters.ADD_PRODUCTS_FOR_WAREHOUSE,
+                                Tuple.of(warehouseCode, 1, MAX_PRODUCTS_PER_WAREHOUSE),
+                                () -> FulfillmentCounters.tooManyProductsForWarehouse(warehouseCode)));
+                    }
+                    return counted;
+                })
+                .chain(() -> client.preparedQuery("INSERT INTO store_product_warehouse (" + COLUMNS + ") "
+                                + "VALUES (nextval('store_product_warehouse_seq'), $1, $2, $3, $4) RETURNING id")
+                        .execute(Tuple.of(storeId, productId, warehouseCode, association.getCreatedAt())))
+                .map(rows -> {
+                    association.id = rows.iterator().next().getLong("id");
+                    return association;
+                });
+    }
+
+    /**
+     * Fires the event the blocking repository fires for a created association. There is no JTA transaction to
+     * hold its observers back until the commit, so this must only be called after the insert has committed;
+     * a rolled-back insert would otherwise stay in the constraint index.
+     */
+    public void created(StoreProductWarehouse association) {
+        associationCreatedEvent.fire(new FulfillmentAssociationCreatedEvent(
+                association.getStoreId(),
+                association.getProductId(),
+                association.getWarehouseBusinessUnitCode()));
+    }
+
+    private static Uni<Void> addCount(
+            SqlClient client, String sql, Tuple parameters, Supplier<RuntimeException> limitReached) {
+        return client.preparedQuery(pg(sql))
+                .execute(parameters)
+                .chain(rows -> rows.rowCount() == 0
+                        ? Uni.createFrom().<Void>failure(limitReached.get())
+                        : Uni.createFrom().voidItem());
+    }
+
+    // the shared statements use JDBC-style ?n placeholders, the reactive client expects $n
+    private static String pg(String sql) {
+        return POSITIONAL_PARAMETER.matcher(sql).replaceAll("\\$$1");
+    }
+
+    private Multi<StoreProductWarehouse> query(String sql, Tuple parameters) {
+        return client.preparedQuery(sql)
+                .execute(parameters)
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .map(ReactiveStoreProductWarehouseRepository::toAssociation);
+    }
+
+    private static StoreProductWarehouse toAssociation(Row row) {
+        StoreProductWarehouse association = new StoreProductWarehouse(
+                row.getLong("store_id"),
+                row.getLong("product_id"),
+                row.getString("warehouse_business_unit_code"));
+        association.id = row.getLong("id");
+        association.setCreatedAt(row.getLocalDateTime("created_at"));
+        return association;
+    }
+}
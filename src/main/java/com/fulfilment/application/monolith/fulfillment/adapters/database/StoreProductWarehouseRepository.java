@@ -1,60 +1,256 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.database;
 
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationCreatedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationDeletedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationsDeletedEvent;
 import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.hibernate.jpa.AvailableHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * The associations between stores, products and warehouses. Every insert and delete also updates the
+ * {@link FulfillmentCounters} in the same transaction, and inserts that would take a count over its limit are
+ * rejected there.
+ */
 @ApplicationScoped
+@QueryLogged
 public class StoreProductWarehouseRepository implements PanacheRepository<StoreProductWarehouse> {
+    private static final int STREAM_FETCH_SIZE = 500;
 
+    @Inject
+    FulfillmentCounters counters;
+
+    @Inject
+    Event<FulfillmentAssociationCreatedEvent> associationCreatedEvent;
+
+    @Inject
+    Event<FulfillmentAssociationDeletedEvent> associationDeletedEvent;
+
+    @Inject
+    Event<FulfillmentAssociationsDeletedEvent> associationsDeletedEvent;
+
+    /**
+     * @throws com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException
+     *         when the association would take a fulfillment count over its limit
+     */
+    @Override
+    @Timed("repository.query")
+    public void persist(StoreProductWarehouse association) {
+        persistAll(List.of(association));
+    }
+
+    /**
+     * Persists the associations; the rows are inserted in JDBC batches when the transaction is flushed. Their
+     * counts are raised with one statement per store and product, store and warehouse.
+     *
+     * @throws com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException
+     *         when the associations would take a fulfillment count over its limit
+     */
+    @Timed("repository.query")
+    public void persistAll(List<StoreProductWarehouse> associations) {
+        counters.add(associations);
+
+        for (StoreProductWarehouse association : associations) {
+            PanacheRepository.super.persist(association);
+
+            associationCreatedEvent.fire(new FulfillmentAssociationCreatedEvent(
+                    association.getStoreId(),
+                    association.getProductId(),
+                    association.getWarehouseBusinessUnitCode()));
+        }
+    }
+
+    @Timed("repository.query")
     public List<StoreProductWarehouse> findByStoreAndProduct(Long storeId, Long productId) {
         return list("storeId = ?1 and productId = ?2", storeId, productId);
     }
 
     public long countByStoreAndProduct(Long storeId, Long productId) {
-        return count("storeId = ?1 and productId = ?2", storeId, productId);
+        return counters.countWarehousesForProduct(storeId, productId);
     }
 
     public long countByStore(Long storeId) {
-        return find("select distinct warehouseBusinessUnitCode from StoreProductWarehouse where storeId = ?1", storeId)
-                .count();
+        return counters.countWarehousesForStore(storeId);
     }
 
     public long countDistinctWarehousesByStore(Long storeId) {
-        return getEntityManager()
-                .createQuery("SELECT COUNT(DISTINCT spw.warehouseBusinessUnitCode) FROM StoreProductWarehouse spw WHERE spw.storeId = :storeId", Long.class)
-                .setParameter("storeId", storeId)
-                .getSingleResult();
+        return counters.countWarehousesForStore(storeId);
     }
 
     public long countProductsByWarehouse(String warehouseBusinessUnitCode) {
-        return getEntityManager()
-                .createQuery("SELECT COUNT(DISTINCT spw.productId) FROM StoreProductWarehouse spw WHERE spw.warehouseBusinessUnitCode = :warehouseCode", Long.class)
-                .setParameter("warehouseCode", warehouseBusinessUnitCode)
-                .getSingleResult();
+        return counters.countProductsForWarehouse(warehouseBusinessUnitCode);
     }
 
+    @Timed("repository.query")
     public boolean exists(Long storeId, Long productId, String warehouseBusinessUnitCode) {
         return count("storeId = ?1 and productId = ?2 and warehouseBusinessUnitCode = ?3",
                 storeId, productId, warehouseBusinessUnitCode) > 0;
     }
 
+    @Timed("repository.query")
     public List<StoreProductWarehouse> findByStore(Long storeId) {
         return list("storeId = ?1", storeId);
     }
 
+    @Timed("repository.query")
     public List<StoreProductWarehouse> findByProduct(Long productId) {
         return list("productId = ?1", productId);
     }
 
+    @Timed("repository.query")
     public List<StoreProductWarehouse> findByWarehouse(String warehouseBusinessUnitCode) {
         return list("warehouseBusinessUnitCode = ?1", warehouseBusinessUnitCode);
     }
 
-    public void deleteByStoreAndProductAndWarehouse(Long storeId, Long productId, String warehouseBusinessUnitCode) {
-        delete("storeId = ?1 and productId = ?2 and warehouseBusinessUnitCode = ?3",
+    /**
+     * Returns up to {@code limit} associations matching the filter with an id greater than {@code afterId},
+     * ordered by id. Seeks on the primary key, so the cost does not grow with the page position.
+     */
+    @Timed("repository.query")
+    public List<StoreProductWarehouse> findPage(FulfillmentFilter filter, Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        PanacheQuery<StoreProductWarehouse> query = filter.getField() == null
+                ? find("id > ?1", Sort.by("id"), after)
+                : find(filter.getField() + " = ?1 and id > ?2", Sort.by("id"), filter.getValue(), after);
+
+        return query.page(Page.ofSize(limit)).list();
+    }
+
+    /**
+     * Streams the associations matching the filter, ordered by id, fetching rows from the database in chunks.
+     * Must be consumed inside a transaction and closed afterwards. Callers should {@link #detach} each row
+     * once it has been handled so the persistence context does not grow with the result.
+     */
+    @Timed("repository.query")
+    public Stream<StoreProductWarehouse> stream(FulfillmentFilter filter) {
+        PanacheQuery<StoreProductWarehouse> query = filter.getField() == null
+                ? findAll(Sort.by("id"))
+                : find(filter.getField() + " = ?1", Sort.by("id"), filter.getValue());
+
+        return query
+                .withHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .withHint(AvailableHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
+    public void detach(StoreProductWarehouse association) {
+        getEntityManager().detach(association);
+    }
+
+    /**
+     * Returns the (storeId, productId, warehouseBusinessUnitCode) key of every association without loading
+     * the entities into the persistence context.
+     */
+    @Timed("repository.query")
+    public List<Object[]> listAllKeys() {
+        return getEntityManager()
+                .createQuery("SELECT spw.storeId, spw.productId, spw.warehouseBusinessUnitCode FROM StoreProductWarehouse spw", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Returns the (storeId, productId, warehouseBusinessUnitCode) key of every association of the given stores
+     * or warehouses.
+     */
+    @Timed("repository.query")
+    public List<Object[]> listKeys(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+        return getEntityManager()
+                .createQuery("SELECT spw.storeId, spw.productId, spw.warehouseBusinessUnitCode FROM StoreProductWarehouse spw"
+                        + " WHERE spw.storeId IN :storeIds OR spw.warehouseBusinessUnitCode IN :warehouseCodes", Object[].class)
+                .setParameter("storeIds", storeIds.isEmpty() ? List.of(-1L) : storeIds)
+                .setParameter("warehouseCodes", warehouseBusinessUnitCodes.isEmpty() ? List.of("") : warehouseBusinessUnitCodes)
+                .getResultList();
+    }
+
+    /**
+     * Takes a PostgreSQL advisory lock held until the current transaction ends, waiting while another
+     * transaction, on this node or another, holds it.
+     */
+    @Timed("repository.query")
+    public void lockAdvisory(int space, int key) {
+        getEntityManager()
+                .createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:space, :key)")
+                .setParameter("space", space)
+                .setParameter("key", key)
+                .getSingleResult();
+    }
+
+    /**
+     * Deletes the association in a single statement.
+     *
+     * @return whether there was an association to delete
+     */
+    @Timed("repository.query")
+    public boolean deleteByStoreAndProductAndWarehouse(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        long deleted = delete("storeId = ?1 and productId = ?2 and warehouseBusinessUnitCode = ?3",
                 storeId, productId, warehouseBusinessUnitCode);
+
+        if (deleted > 0) {
+            counters.remove(storeId, productId, warehouseBusinessUnitCode);
+            associationDeletedEvent.fire(new FulfillmentAssociationDeletedEvent(
+                    storeId, productId, warehouseBusinessUnitCode));
+        }
+        return deleted > 0;
+    }
+
+    /**
+     * Returns the (storeId, warehouseBusinessUnitCode) pair of every association of the filter's store, product
+     * or warehouse, the stores and warehouses whose counts deleting them changes.
+     */
+    @Timed("repository.query")
+    public List<Object[]> listStoresAndWarehouses(FulfillmentFilter filter) {
+        return getEntityManager()
+                .createQuery("SELECT DISTINCT spw.storeId, spw.warehouseBusinessUnitCode FROM StoreProductWarehouse spw"
+                        + " WHERE spw." + filter.getField() + " = :value", Object[].class)
+                .setParameter("value", filter.getValue())
+                .getResultList();
+    }
+
+    /**
+     * Deletes every association of the filter's store, product or warehouse that also belongs to one of the given
+     * stores and one of the given warehouses, in a single statement. The caller holds the {@link FulfillmentLocks}
+     * of those stores and warehouses, so associations created meanwhile for others are left alone and the
+     * recount of the given ones cannot race a create or delete.
+     *
+     * @return the number of associations deleted
+     * @throws IllegalArgumentException for {@link FulfillmentFilter#all()}
+     */
+    @Timed("repository.query")
+    public long deleteMatching(FulfillmentFilter filter, Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+        if (filter.getField() == null) {
+            throw new IllegalArgumentException("Refusing to delete every association");
+        }
+        if (storeIds.isEmpty() || warehouseBusinessUnitCodes.isEmpty()) {
+            return 0;
+        }
+
+        long deleted = delete(filter.getField() + " = ?1 and storeId in ?2 and warehouseBusinessUnitCode in ?3",
+                filter.getValue(), storeIds, warehouseBusinessUnitCodes);
+        if (deleted > 0) {
+            counters.recount(storeIds, warehouseBusinessUnitCodes);
+            associationsDeletedEvent.fire(new FulfillmentAssociationsDeletedEvent(
+                    filter.getField(), filter.getValue(), deleted));
+        }
+        return deleted;
+    }
+
+    @Override
+    @Timed("repository.query")
+    public long deleteAll() {
+        long deleted = getEntityManager().createQuery("DELETE FROM StoreProductWarehouse").executeUpdate();
+        counters.clear();
+        return deleted;
     }
 }
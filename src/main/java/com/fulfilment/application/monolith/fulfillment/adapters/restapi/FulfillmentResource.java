@@ -2,10 +2,16 @@ package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
 
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentDeleteResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import java.util.List;
 
@@ -14,30 +20,89 @@ import java.util.List;
 @Consumes(MediaType.APPLICATION_JSON)
 public interface FulfillmentResource {
 
+    String APPLICATION_NDJSON = "application/x-ndjson";
+
+    // The list endpoints return everything unless "limit" or "after" is given. With either, they return one
+    // page ordered by id; pass the id of the last association received as "after" to get the next page.
+
     @GET
-    List<FulfillmentAssociationResponse> listAll();
+    List<FulfillmentAssociationResponse> listAll(
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit);
 
     @GET
     @Path("/store/{storeId}")
-    List<FulfillmentAssociationResponse> getByStore(@PathParam("storeId") Long storeId);
+    List<FulfillmentAssociationResponse> getByStore(
+            @PathParam("storeId") Long storeId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit);
 
     @GET
     @Path("/product/{productId}")
-    List<FulfillmentAssociationResponse> getByProduct(@PathParam("productId") Long productId);
+    List<FulfillmentAssociationResponse> getByProduct(
+            @PathParam("productId") Long productId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit);
 
     @GET
     @Path("/warehouse/{warehouseBusinessUnitCode}")
     List<FulfillmentAssociationResponse> getByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit);
+
+    // Streaming variants, selected with "Accept: application/x-ndjson". One JSON association per line,
+    // written as the rows are read.
+
+    @GET
+    @Produces(APPLICATION_NDJSON)
+    StreamingOutput streamAll();
+
+    @GET
+    @Path("/store/{storeId}")
+    @Produces(APPLICATION_NDJSON)
+    StreamingOutput streamByStore(@PathParam("storeId") Long storeId);
+
+    @GET
+    @Path("/product/{productId}")
+    @Produces(APPLICATION_NDJSON)
+    StreamingOutput streamByProduct(@PathParam("productId") Long productId);
+
+    @GET
+    @Path("/warehouse/{warehouseBusinessUnitCode}")
+    @Produces(APPLICATION_NDJSON)
+    StreamingOutput streamByWarehouse(
             @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode);
 
     @POST
     Response createAssociation(@Valid FulfillmentAssociationRequest request);
 
+    @POST
+    @Path("/batch")
+    Response createAssociations(
+            @NotEmpty @Size(max = 1000) List<@Valid FulfillmentAssociationRequest> requests);
+
     @DELETE
     @Path("/store/{storeId}/product/{productId}/warehouse/{warehouseBusinessUnitCode}")
     Response deleteAssociation(
             @PathParam("storeId") Long storeId,
             @PathParam("productId") Long productId,
             @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode);
+
+    // Bulk deletes: every association of a store, product or warehouse, in one statement. They answer with the
+    // number of associations deleted, which is 0 when there were none.
+
+    @DELETE
+    @Path("/store/{storeId}")
+    FulfillmentDeleteResponse deleteByStore(@PathParam("storeId") Long storeId);
+
+    @DELETE
+    @Path("/product/{productId}")
+    FulfillmentDeleteResponse deleteByProduct(@PathParam("productId") Long productId);
+
+    @DELETE
+    @Path("/warehouse/{warehouseBusinessUnitCode}")
+    FulfillmentDeleteResponse deleteByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode);
 }
 
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
+
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentRouteResponse;
+import com.fulfilment.application.monolith.fulfillment.domain.usecases.FulfillmentRoutingUseCase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Serves both the blocking and the reactive build, routing only reads memory
+@ApplicationScoped
+@Path("/fulfillment/routing")
+@Produces(MediaType.APPLICATION_JSON)
+public class FulfillmentRoutingResource {
+
+    @Inject
+    FulfillmentRoutingUseCase routingUseCase;
+
+    /**
+     * The warehouses that can fulfil the store's order for the product, best first. Empty when none can.
+     * "cost" selects a cost function other than the configured one.
+     */
+    @GET
+    public List<FulfillmentRouteResponse> route(
+            @QueryParam("storeId") @NotNull Long storeId,
+            @QueryParam("productId") @NotNull Long productId,
+            @QueryParam("quantity") @NotNull @Min(1) Integer quantity,
+            @QueryParam("cost") String costFunction) {
+        List<FulfillmentRoutingUseCase.RankedCandidate> ranked;
+        try {
+            ranked = routingUseCase.route(storeId, productId, quantity, costFunction);
+        } catch (IllegalArgumentException e) {
+            throw new RequestRejectedException(e.getMessage(), Response.Status.BAD_REQUEST);
+        }
+
+        List<FulfillmentRouteResponse> routes = new ArrayList<>(ranked.size());
+        for (FulfillmentRoutingUseCase.RankedCandidate candidate : ranked) {
+            var route = new FulfillmentRouteResponse();
+            route.setRank(routes.size() + 1);
+            route.setWarehouseBusinessUnitCode(candidate.candidate().warehouseBusinessUnitCode());
+            route.setLocation(candidate.candidate().location());
+            route.setCapacity(candidate.candidate().capacity());
+            route.setAvailable(candidate.candidate().available());
+            route.setCost(candidate.cost());
+            routes.add(route);
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FulfillmentBatchItemResult {
+
+    // position of the item in the submitted batch
+    private int index;
+    private int status;
+    private FulfillmentAssociationResponse association;
+    private String error;
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FulfillmentDeleteResponse {
+
+    // number of associations deleted
+    private long deleted;
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FulfillmentRouteResponse {
+
+    private int rank;
+    private String warehouseBusinessUnitCode;
+    private String location;
+    private Integer capacity;
+    private Integer available;
+    private Double cost;
+}
@@ -1,51 +1,103 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.restapi.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.concurrency.JdbcBound;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.FulfillmentResource;
 import com.fulfilment.application.monolith.fulfillment.domain.usecases.FulfillmentUseCase;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentBatchItemResult;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentDeleteResponse;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+// Replaced by ReactiveFulfillmentResourceImpl when the reactive path is built in
 @ApplicationScoped
+@JdbcBound
+@UnlessBuildProperty(name = "fulfillment.reactive.enabled", stringValue = "true", enableIfMissing = true)
 public class FulfillmentResourceImpl implements FulfillmentResource {
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(FulfillmentResourceImpl.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     @Inject
     FulfillmentUseCase fulfillmentUseCase;
 
+    @Inject
+    ObjectMapper objectMapper;
+
     @Override
-    public List<FulfillmentAssociationResponse> listAll() {
-        return fulfillmentUseCase.listAll();
+    public List<FulfillmentAssociationResponse> listAll(Long after, Integer limit) {
+        if (after == null && limit == null) {
+            return fulfillmentUseCase.listAll();
+        }
+        return fulfillmentUseCase.getPage(FulfillmentFilter.all(), after, pageSize(limit));
     }
 
     @Override
-    public List<FulfillmentAssociationResponse> getByStore(Long storeId) {
-        return fulfillmentUseCase.getByStore(storeId);
+    public List<FulfillmentAssociationResponse> getByStore(
+            Long storeId, Long after, Integer limit) {
+        if (after == null && limit == null) {
+            return fulfillmentUseCase.getByStore(storeId);
+        }
+        return fulfillmentUseCase.getPage(FulfillmentFilter.byStore(storeId), after, pageSize(limit));
     }
 
     @Override
-    public List<FulfillmentAssociationResponse> getByProduct(Long productId) {
-        return fulfillmentUseCase.getByProduct(productId);
+    public List<FulfillmentAssociationResponse> getByProduct(
+            Long productId, Long after, Integer limit) {
+        if (after == null && limit == null) {
+            return fulfillmentUseCase.getByProduct(productId);
+        }
+        return fulfillmentUseCase.getPage(FulfillmentFilter.byProduct(productId), after, pageSize(limit));
     }
 
     @Override
     public List<FulfillmentAssociationResponse> getByWarehouse(
-            String warehouseBusinessUnitCode) {
-        return fulfillmentUseCase.getByWarehouse(warehouseBusinessUnitCode);
+            String warehouseBusinessUnitCode, Long after, Integer limit) {
+        if (after == null && limit == null) {
+            return fulfillmentUseCase.getByWarehouse(warehouseBusinessUnitCode);
+        }
+        return fulfillmentUseCase.getPage(
+                FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode), after, pageSize(limit));
+    }
+
+    @Override
+    public StreamingOutput streamAll() {
+        return stream(FulfillmentFilter.all());
+    }
+
+    @Override
+    public StreamingOutput streamByStore(Long storeId) {
+        return stream(FulfillmentFilter.byStore(storeId));
+    }
+
+    @Override
+    public StreamingOutput streamByProduct(Long productId) {
+        return stream(FulfillmentFilter.byProduct(productId));
+    }
+
+    @Override
+    public StreamingOutput streamByWarehouse(String warehouseBusinessUnitCode) {
+        return stream(FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode));
     }
 
+    // the use case runs the create in a transaction of its own, see FulfillmentUseCase#createAssociation
     @Override
-    @Transactional
     public Response createAssociation(FulfillmentAssociationRequest request) {
         FulfillmentAssociationResponse response =
                 fulfillmentUseCase.createAssociation(request);
@@ -57,7 +109,16 @@ public class FulfillmentResourceImpl implements FulfillmentResource {
     }
 
     @Override
-    @Transactional
+    public Response createAssociations(List<FulfillmentAssociationRequest> requests) {
+        List<FulfillmentBatchItemResult> results =
+                fulfillmentUseCase.createAssociations(requests);
+
+        LOGGER.info("Processed batch of {} fulfillment associations", results.size());
+        return Response.ok(results).build();
+    }
+
+    // the deletes too, see FulfillmentUseCase#deleteAssociation
+    @Override
     public Response deleteAssociation(
             Long storeId, Long productId, String warehouseBusinessUnitCode) {
 
@@ -67,5 +128,58 @@ public class FulfillmentResourceImpl implements FulfillmentResource {
         LOGGER.info("Deleted fulfillment association");
         return Response.noContent().build();
     }
-}
 
+    @Override
+    public FulfillmentDeleteResponse deleteByStore(Long storeId) {
+        return delete(FulfillmentFilter.byStore(storeId));
+    }
+
+    @Override
+    public FulfillmentDeleteResponse deleteByProduct(Long productId) {
+        return delete(FulfillmentFilter.byProduct(productId));
+    }
+
+    @Override
+    public FulfillmentDeleteResponse deleteByWarehouse(String warehouseBusinessUnitCode) {
+        return delete(FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode));
+    }
+
+    static int pageSize(Integer limit) {
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    private FulfillmentDeleteResponse delete(FulfillmentFilter filter) {
+        return delete(fulfillmentUseCase, filter);
+    }
+
+    static FulfillmentDeleteResponse delete(FulfillmentUseCase fulfillmentUseCase, FulfillmentFilter filter) {
+        var response = new FulfillmentDeleteResponse();
+        response.setDeleted(fulfillmentUseCase.deleteAssociations(filter));
+        LOGGER.info("Deleted {} fulfillment associations with {} {}",
+                response.getDeleted(), filter.getField(), filter.getValue());
+        return response;
+    }
+
+    private StreamingOutput stream(FulfillmentFilter filter) {
+        return stream(objectMapper, fulfillmentUseCase, filter);
+    }
+
+    static StreamingOutput stream(
+            ObjectMapper objectMapper, FulfillmentUseCase fulfillmentUseCase, FulfillmentFilter filter) {
+        return output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.setRootValueSeparator(null);
+                fulfillmentUseCase.streamAll(filter, association -> {
+                    try {
+                        objectMapper.writeValue(generator, association);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.FulfillmentResource;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentBatchItemResult;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentDeleteResponse;
+import com.fulfilment.application.monolith.fulfillment.domain.usecases.FulfillmentUseCase;
+import com.fulfilment.application.monolith.fulfillment.domain.usecases.ReactiveFulfillmentUseCase;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The fulfillment API of {@link FulfillmentResource}, with the reads and the single create served on the event
+ * loop through {@link ReactiveFulfillmentUseCase}. Built instead of {@link FulfillmentResourceImpl} when
+ * {@code fulfillment.reactive.enabled} is set at build time.
+ *
+ * <p>The NDJSON streams, batch creates and deletes stay on the blocking path: they are transactional and
+ * already run on worker threads.
+ */
+@Path("/fulfillment")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+@IfBuildProperty(name = "fulfillment.reactive.enabled", stringValue = "true")
+public class ReactiveFulfillmentResourceImpl {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ReactiveFulfillmentResourceImpl.class);
+
+    @Inject
+    ReactiveFulfillmentUseCase reactiveFulfillmentUseCase;
+
+    @Inject
+    FulfillmentUseCase fulfillmentUseCase;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @GET
+    public Uni<List<FulfillmentAssociationResponse>> listAll(
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit) {
+        return list(FulfillmentFilter.all(), after, limit);
+    }
+
+    @GET
+    @Path("/store/{storeId}")
+    public Uni<List<FulfillmentAssociationResponse>> getByStore(
+            @PathParam("storeId") Long storeId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit) {
+        return list(FulfillmentFilter.byStore(storeId), after, limit);
+    }
+
+    @GET
+    @Path("/product/{productId}")
+    public Uni<List<FulfillmentAssociationResponse>> getByProduct(
+            @PathParam("productId") Long productId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit) {
+        return list(FulfillmentFilter.byProduct(productId), after, limit);
+    }
+
+    @GET
+    @Path("/warehouse/{warehouseBusinessUnitCode}")
+    public Uni<List<FulfillmentAssociationResponse>> getByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @Min(1) @Max(1000) Integer limit) {
+        return list(FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode), after, limit);
+    }
+
+    @GET
+    @Produces(FulfillmentResource.APPLICATION_NDJSON)
+    public StreamingOutput streamAll() {
+        return FulfillmentResourceImpl.stream(objectMapper, fulfillmentUseCase, FulfillmentFilter.all());
+    }
+
+    @GET
+    @Path("/store/{storeId}")
+    @Produces(FulfillmentResource.APPLICATION_NDJSON)
+    public StreamingOutput streamByStore(@PathParam("storeId") Long storeId) {
+        return FulfillmentResourceImpl.stream(objectMapper, fulfillmentUseCase, FulfillmentFilter.byStore(storeId));
+    }
+
+    @GET
+    @Path("/product/{productId}")
+    @Produces(FulfillmentResource.APPLICATION_NDJSON)
+    public StreamingOutput streamByProduct(@PathParam("productId") Long productId) {
+        return FulfillmentResourceImpl.stream(
+                objectMapper, fulfillmentUseCase, FulfillmentFilter.byProduct(productId));
+    }
+
+    @GET
+    @Path("/warehouse/{warehouseBusinessUnitCode}")
+    @Produces(FulfillmentResource.APPLICATION_NDJSON)
+    public StreamingOutput streamByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+        return FulfillmentResourceImpl.stream(
+                objectMapper, fulfillmentUseCase, FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode));
+    }
+
+    @POST
+    public Uni<Response> createAssociation(@Valid FulfillmentAssociationRequest request) {
+        return reactiveFulfillmentUseCase.createAssociation(request)
+                .map(response -> {
+                    LOGGER.info("Fulfillment association created successfully");
+                    return Response.status(Response.Status.CREATED)
+                            .entity(response)
+                            .build();
+                });
+    }
+
+    @POST
+    @Path("/batch")
+    public Response createAssociations(
+            @NotEmpty @Size(max = 1000) List<@Valid FulfillmentAssociationRequest> requests) {
+        List<FulfillmentBatchItemResult> results =
+                fulfillmentUseCase.createAssociations(requests);
+
+        LOGGER.info("Processed batch of {} fulfillment associations", results.size());
+        return Response.ok(results).build();
+    }
+
+    @DELETE
+    @Path("/store/{storeId}/product/{productId}/warehouse/{warehouseBusinessUnitCode}")
+    public Response deleteAssociation(
+            @PathParam("storeId") Long storeId,
+            @PathParam("productId") Long productId,
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+
+        fulfillmentUseCase.deleteAssociation(
+                storeId, productId, warehouseBusinessUnitCode);
+
+        LOGGER.info("Deleted fulfillment association");
+        return Response.noContent().build();
+    }
+
+    @DELETE
+    @Path("/store/{storeId}")
+    public FulfillmentDeleteResponse deleteByStore(@PathParam("storeId") Long storeId) {
+        return FulfillmentResourceImpl.delete(fulfillmentUseCase, FulfillmentFilter.byStore(storeId));
+    }
+
+    @DELETE
+    @Path("/product/{productId}")
+    public FulfillmentDeleteResponse deleteByProduct(@PathParam("productId") Long productId) {
+        return FulfillmentResourceImpl.delete(fulfillmentUseCase, FulfillmentFilter.byProduct(productId));
+    }
+
+    @DELETE
+    @Path("/warehouse/{warehouseBusinessUnitCode}")
+    public FulfillmentDeleteResponse deleteByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+        return FulfillmentResourceImpl.delete(fulfillmentUseCase, FulfillmentFilter.byWarehouse(warehouseBusinessUnitCode));
+    }
+
+    private Uni<List<FulfillmentAssociationResponse>> list(FulfillmentFilter filter, Long after, Integer limit) {
+        if (after == null && limit == null) {
+            return reactiveFulfillmentUseCase.list(filter);
+        }
+        return reactiveFulfillmentUseCase.getPage(filter, after, FulfillmentResourceImpl.pageSize(limit));
+    }
+}
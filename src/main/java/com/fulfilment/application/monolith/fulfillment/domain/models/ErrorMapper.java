@@ -1,41 +1,21 @@
 package com.fulfilment.application.monolith.fulfillment.domain.models;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.errors.ErrorResponses;
 import jakarta.inject.Inject;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 @Provider
 public class ErrorMapper implements ExceptionMapper<Exception> {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ErrorMapper.class);
-
     @Inject
     ObjectMapper objectMapper;
 
     @Override
     public Response toResponse(Exception exception) {
-        LOGGER.error("Failed to handle request: {}", exception.getMessage());
-
-        int code = 500;
-        if (exception instanceof WebApplicationException) {
-            code = ((WebApplicationException) exception).getResponse().getStatus();
-        }
-
-        ObjectNode exceptionJson = objectMapper.createObjectNode();
-        exceptionJson.put("exceptionType", exception.getClass().getName());
-        exceptionJson.put("code", code);
-
-        if (exception.getMessage() != null) {
-            exceptionJson.put("error", exception.getMessage());
-        }
-
-        return Response.status(code).entity(exceptionJson).build();
+        return ErrorResponses.toResponse(objectMapper, exception);
     }
 }
 
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.fulfillment.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class FulfillmentAssociationCreatedEvent {
+    private final Long storeId;
+    private final Long productId;
+    private final String warehouseBusinessUnitCode;
+}
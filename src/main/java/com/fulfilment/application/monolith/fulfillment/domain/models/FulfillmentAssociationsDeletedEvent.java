@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.fulfillment.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fired when every association of a store, product or warehouse was deleted in one statement.
+ */
+@AllArgsConstructor
+@Getter
+public class FulfillmentAssociationsDeletedEvent {
+    // entity field the deleted associations matched on
+    private final String field;
+    private final Object value;
+    private final long deleted;
+}
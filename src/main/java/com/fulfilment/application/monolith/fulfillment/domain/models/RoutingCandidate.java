@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.fulfillment.domain.models;
+
+/**
+ * A warehouse that could fulfil a store's order for a product, with the figures the routing cost functions
+ * rank it by.
+ *
+ * @param storeAssociations the number of the store's products the warehouse is associated with
+ */
+public record RoutingCandidate(
+        String warehouseBusinessUnitCode,
+        String location,
+        int capacity,
+        int stock,
+        int reserved,
+        int storeAssociations) {
+
+    public int available() {
+        return stock - reserved;
+    }
+}
@@ -17,13 +17,12 @@ import java.time.LocalDateTime;
                         name = "uk_store_product_warehouse"
                 )
         },
+        // mirrors the migrations in db/migration, which own the schema
         indexes = {
-                @Index(name = "idx_store_product", columnList = "store_id, product_id"),
                 @Index(name = "idx_store_warehouse", columnList = "store_id, warehouse_business_unit_code"),
-                @Index(name = "idx_warehouse_product", columnList = "warehouse_business_unit_code, product_id")
+                @Index(name = "idx_warehouse_product", columnList = "warehouse_business_unit_code, product_id, store_id")
         }
 )
-@Cacheable
 @Getter
 @Setter
 public class StoreProductWarehouse extends PanacheEntity {
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.fulfillment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.RoutingCandidate;
+
+/**
+ * Ranks the warehouses able to fulfil an order; the one with the lowest cost is routed to first. Implementations
+ * are application scoped beans, selected by {@link #name()}, and are called on the order intake path, so they
+ * must only look at the candidate.
+ */
+public interface RoutingCostFunction {
+
+    String name();
+
+    double cost(RoutingCandidate candidate, int quantity);
+}
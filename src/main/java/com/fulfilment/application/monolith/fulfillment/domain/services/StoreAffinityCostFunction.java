@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.fulfillment.domain.services;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.RoutingCandidate;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.RoutingCostFunction;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Prefers the warehouse that supplies the most of the store's products, so a store's orders are consolidated in
+ * as few warehouses as possible.
+ */
+@ApplicationScoped
+public class StoreAffinityCostFunction implements RoutingCostFunction {
+
+    public static final String NAME = "affinity";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double cost(RoutingCandidate candidate, int quantity) {
+        return -candidate.storeAssociations();
+    }
+}
@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.fulfillment.domain.services;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.RoutingCandidate;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.RoutingCostFunction;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Prefers the warehouse that would have the smallest share of its stock promised after the order, which spreads
+ * the orders over the warehouses holding the product.
+ */
+@ApplicationScoped
+public class UtilizationCostFunction implements RoutingCostFunction {
+
+    public static final String NAME = "utilization";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double cost(RoutingCandidate candidate, int quantity) {
+        // without stock there is no share to compare; such a warehouse ranks last rather than as NaN or -Infinity
+        if (candidate.stock() <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (double) (candidate.reserved() + quantity) / candidate.stock();
+    }
+}
@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.fulfillment.domain.usecases;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentConstraintIndex;
+import com.fulfilment.application.monolith.fulfillment.domain.models.RoutingCandidate;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.RoutingCostFunction;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockReservations;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the warehouses to fulfil a store's order for a product. Everything a decision needs is already held in
+ * memory: the store's associations in {@link FulfillmentConstraintIndex}, the available stock in
+ * {@link StockReservations} and the warehouses in the {@link WarehouseRepository} caches, so routing does not
+ * go to the database.
+ */
+@ApplicationScoped
+public class FulfillmentRoutingUseCase {
+
+    // lowest cost first; ties go to the warehouse with the most stock available, then by code for a stable order
+    private static final Comparator<RankedCandidate> RANKING = Comparator
+            .comparingDouble(RankedCandidate::cost)
+            .thenComparing(ranked -> -ranked.candidate().available())
+            .thenComparing(ranked -> ranked.candidate().warehouseBusinessUnitCode());
+
+    @ConfigProperty(name = "fulfillment.routing.cost-function", defaultValue = "utilization")
+    String defaultCostFunction;
+
+    @Inject
+    @Any
+    Instance<RoutingCostFunction> costFunctionBeans;
+
+    @Inject
+    FulfillmentConstraintIndex constraintIndex;
+
+    @Inject
+    StockReservations stockReservations;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    private final Map<String, RoutingCostFunction> costFunctions = new HashMap<>();
+
+    @PostConstruct
+    void registerCostFunctions() {
+        costFunctionBeans.forEach(function -> costFunctions.put(function.name(), function));
+        if (!costFunctions.containsKey(defaultCostFunction)) {
+            throw new IllegalStateException("Unknown routing cost function " + defaultCostFunction
+                    + ", expected one of " + costFunctions.keySet());
+        }
+    }
+
+    /**
+     * Returns the warehouses associated with the store for the product that have {@code quantity} units
+     * available, ranked by the named cost function, or by the configured one when {@code costFunctionName} is
+     * {@code null}.
+     *
+     * @throws IllegalArgumentException when there is no cost function of that name
+     */
+    public List<RankedCandidate> route(Long storeId, Long productId, int quantity, String costFunctionName) {
+        RoutingCostFunction costFunction = costFunctions.get(
+                costFunctionName != null ? costFunctionName : defaultCostFunction);
+        if (costFunction == null) {
+            throw new IllegalArgumentException("Unknown routing cost function " + costFunctionName
+                    + ", expected one of " + costFunctions.keySet());
+        }
+
+        Set<String> warehouses = constraintIndex.findWarehouses(storeId, productId);
+        List<RankedCandidate> ranked = new ArrayList<>(warehouses.size());
+        for (String code : warehouses) {
+            RoutingCandidate candidate = candidate(storeId, code);
+            if (candidate != null && candidate.available() >= quantity) {
+                ranked.add(new RankedCandidate(candidate, costFunction.cost(candidate, quantity)));
+            }
+        }
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    // null when the warehouse is no longer active
+    private RoutingCandidate candidate(Long storeId, String code) {
+        StockLevel level = stockReservations.stockLevel(code);
+        Warehouse warehouse = level != null ? warehouseRepository.findActiveByBusinessUnitCode(code) : null;
+        if (warehouse == null) {
+            return null;
+        }
+
+        return new RoutingCandidate(
+                code,
+                warehouse.location,
+                warehouse.capacity != null ? warehouse.capacity : 0,
+                level.stock(),
+                level.reserved(),
+                constraintIndex.countAssociations(storeId, code));
+    }
+
+    public record RankedCandidate(RoutingCandidate candidate, double cost) {
+    }
+}
@@ -1,91 +1,225 @@
 package com.fulfilment.application.monolith.fulfillment.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentLocks;
 import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
 import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
 import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentBatchItemResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class FulfillmentUseCase {
 
+    private static final RequestRejectedException ASSOCIATION_NOT_FOUND =
+            RequestRejectedException.preallocated("Association not found", Response.Status.NOT_FOUND);
+
     @Inject
     StoreProductWarehouseRepository fulfillmentRepository;
 
     @Inject
     WarehouseValidationService validationService;
 
+    @Inject
+    FulfillmentLocks locks;
+
     public List<FulfillmentAssociationResponse> listAll() {
         return fulfillmentRepository.listAll()
                 .stream()
-                .map(this::toResponse)
+                .map(FulfillmentUseCase::toResponse)
                 .toList();
     }
 
     public List<FulfillmentAssociationResponse> getByStore(Long storeId) {
         return fulfillmentRepository.findByStore(storeId)
                 .stream()
-                .map(this::toResponse)
+                .map(FulfillmentUseCase::toResponse)
                 .toList();
     }
 
     public List<FulfillmentAssociationResponse> getByProduct(Long productId) {
         return fulfillmentRepository.findByProduct(productId)
                 .stream()
-                .map(this::toResponse)
+                .map(FulfillmentUseCase::toResponse)
                 .toList();
     }
 
     public List<FulfillmentAssociationResponse> getByWarehouse(String warehouseCode) {
         return fulfillmentRepository.findByWarehouse(warehouseCode)
                 .stream()
-                .map(this::toResponse)
+                .map(FulfillmentUseCase::toResponse)
                 .toList();
     }
 
+    public List<FulfillmentAssociationResponse> getPage(
+            FulfillmentFilter filter, Long afterId, int limit) {
+        return fulfillmentRepository.findPage(filter, afterId, limit)
+                .stream()
+                .map(FulfillmentUseCase::toResponse)
+                .toList();
+    }
+
+    /**
+     * Hands every association matching the filter to the consumer one at a time, without holding the
+     * result in memory. Transactional because it is called while the response is written, after the
+     * resource method has returned.
+     */
+    @Transactional
+    public void streamAll(FulfillmentFilter filter, Consumer<FulfillmentAssociationResponse> consumer) {
+        try (Stream<StoreProductWarehouse> associations = fulfillmentRepository.stream(filter)) {
+            associations.forEach(association -> {
+                consumer.accept(toResponse(association));
+                fulfillmentRepository.detach(association);
+            });
+        }
+    }
+
+    /**
+     * Validates and creates the association in a transaction of its own, holding the locks of its store and
+     * warehouse until it has committed, so concurrent creates cannot all pass the limits.
+     */
     public FulfillmentAssociationResponse createAssociation(
             FulfillmentAssociationRequest request) {
 
-        validationService.validateFulfillmentAssociation(
-                request.getStoreId(),
-                request.getProductId(),
-                request.getWarehouseBusinessUnitCode()
-        );
+        return locks.callLocked(
+                Set.of(request.getStoreId()),
+                Set.of(request.getWarehouseBusinessUnitCode()),
+                () -> {
+                    validationService.validateFulfillmentAssociation(
+                            request.getStoreId(),
+                            request.getProductId(),
+                            request.getWarehouseBusinessUnitCode()
+                    );
+
+                    StoreProductWarehouse association =
+                            new StoreProductWarehouse(
+                                    request.getStoreId(),
+                                    request.getProductId(),
+                                    request.getWarehouseBusinessUnitCode());
+
+                    association.setCreatedAt(LocalDateTime.now());
+                    fulfillmentRepository.persist(association);
+
+                    return toResponse(association);
+                });
+    }
+
+    /**
+     * Creates every association of the batch that passes validation and reports a result per item. Runs in a
+     * transaction of its own holding the locks of every store and warehouse in the batch; the accepted rows
+     * are flushed together on commit, so Hibernate sends them as JDBC batches.
+     */
+    public List<FulfillmentBatchItemResult> createAssociations(
+            List<FulfillmentAssociationRequest> requests) {
+
+        Set<Long> storeIds = new HashSet<>();
+        Set<String> warehouseCodes = new HashSet<>();
+        for (FulfillmentAssociationRequest request : requests) {
+            storeIds.add(request.getStoreId());
+            warehouseCodes.add(request.getWarehouseBusinessUnitCode());
+        }
+
+        return locks.callLocked(storeIds, warehouseCodes, () -> validateAndPersist(requests));
+    }
 
-        StoreProductWarehouse association =
-                new StoreProductWarehouse(
+    private List<FulfillmentBatchItemResult> validateAndPersist(List<FulfillmentAssociationRequest> requests) {
+        List<StoreProductWarehouse> associations = requests.stream()
+                .map(request -> new StoreProductWarehouse(
                         request.getStoreId(),
                         request.getProductId(),
-                        request.getWarehouseBusinessUnitCode());
+                        request.getWarehouseBusinessUnitCode()))
+                .toList();
 
-        association.setCreatedAt(LocalDateTime.now());
-        fulfillmentRepository.persist(association);
+        List<String> rejections =
+                validationService.validateFulfillmentAssociations(associations);
 
-        return toResponse(association);
+        LocalDateTime now = LocalDateTime.now();
+        List<StoreProductWarehouse> accepted = new ArrayList<>(associations.size());
+        for (int i = 0; i < associations.size(); i++) {
+            if (rejections.get(i) == null) {
+                associations.get(i).setCreatedAt(now);
+                accepted.add(associations.get(i));
+            }
+        }
+        // together, so the fulfillment counters are raised once per store, product and warehouse
+        fulfillmentRepository.persistAll(accepted);
+
+        List<FulfillmentBatchItemResult> results = new ArrayList<>(associations.size());
+        for (int i = 0; i < associations.size(); i++) {
+            FulfillmentBatchItemResult result = new FulfillmentBatchItemResult();
+            result.setIndex(i);
+
+            String rejection = rejections.get(i);
+            if (rejection != null) {
+                result.setStatus(Response.Status.BAD_REQUEST.getStatusCode());
+                result.setError(rejection);
+            } else {
+                result.setStatus(Response.Status.CREATED.getStatusCode());
+                result.setAssociation(toResponse(associations.get(i)));
+            }
+            results.add(result);
+        }
+
+        return results;
     }
 
+    /**
+     * Deletes the association in a transaction of its own holding the locks of its store and warehouse, so the
+     * counts it lowers cannot race a create or delete of the same store or warehouse.
+     */
     public void deleteAssociation(
             Long storeId, Long productId, String warehouseBusinessUnitCode) {
 
-        if (!fulfillmentRepository.exists(
-                storeId, productId, warehouseBusinessUnitCode)) {
-            throw new WebApplicationException(
-                    "Association not found",
-                    Response.Status.NOT_FOUND);
+        locks.callLocked(
+                Set.of(storeId),
+                Set.of(warehouseBusinessUnitCode),
+                () -> {
+                    // a single statement, its row count tells whether the association existed
+                    if (!fulfillmentRepository.deleteByStoreAndProductAndWarehouse(
+                            storeId, productId, warehouseBusinessUnitCode)) {
+                        throw ASSOCIATION_NOT_FOUND;
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Deletes every association of the filter's store, product or warehouse in one statement, in a transaction
+     * of its own holding the locks of every store and warehouse they belong to. Associations created for other
+     * stores and warehouses before the locks are taken are left in place.
+     *
+     * @return the number of associations deleted
+     */
+    public long deleteAssociations(FulfillmentFilter filter) {
+        Set<Long> storeIds = new HashSet<>();
+        Set<String> warehouseCodes = new HashSet<>();
+        for (Object[] pair : fulfillmentRepository.listStoresAndWarehouses(filter)) {
+            storeIds.add((Long) pair[0]);
+            warehouseCodes.add((String) pair[1]);
+        }
+        if (storeIds.isEmpty()) {
+            return 0;
         }
 
-        fulfillmentRepository.deleteByStoreAndProductAndWarehouse(
-                storeId, productId, warehouseBusinessUnitCode);
+        return locks.callLocked(storeIds, warehouseCodes,
+                () -> fulfillmentRepository.deleteMatching(filter, storeIds, warehouseCodes));
     }
 
-    private FulfillmentAssociationResponse toResponse(StoreProductWarehouse association) {
+    static FulfillmentAssociationResponse toResponse(StoreProductWarehouse association) {
         FulfillmentAssociationResponse response =
                 new FulfillmentAssociationResponse();
         response.setId(association.id);
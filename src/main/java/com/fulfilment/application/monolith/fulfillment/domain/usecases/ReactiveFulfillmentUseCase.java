@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.fulfillment.domain.usecases;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentConstraintIndex;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.ReactiveStoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of the reads and the single create of {@link FulfillmentUseCase}, with the same
+ * results and the same validation. Nothing here blocks the calling thread, so these requests are served on the
+ * event loop instead of holding a worker thread and a JDBC connection each.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "fulfillment.reactive.enabled", stringValue = "true")
+public class ReactiveFulfillmentUseCase {
+
+    @Inject
+    ReactiveStoreProductWarehouseRepository fulfillmentRepository;
+
+    @Inject
+    WarehouseValidationService validationService;
+
+    @Inject
+    FulfillmentConstraintIndex constraintIndex;
+
+    public Uni<List<FulfillmentAssociationResponse>> list(FulfillmentFilter filter) {
+        return fulfillmentRepository.find(filter)
+                .map(FulfillmentUseCase::toResponse)
+                .collect().asList();
+    }
+
+    public Uni<List<FulfillmentAssociationResponse>> getPage(
+            FulfillmentFilter filter, Long afterId, int limit) {
+        return fulfillmentRepository.findPage(filter, afterId, limit)
+                .map(FulfillmentUseCase::toResponse)
+                .collect().asList();
+    }
+
+    public Uni<FulfillmentAssociationResponse> createAssociation(FulfillmentAssociationRequest request) {
+        Long storeId = request.getStoreId();
+        Long productId = request.getProductId();
+        String warehouseCode = request.getWarehouseBusinessUnitCode();
+
+        // Serialized with the other creates for the store or warehouse by advisory locks, which do not block the
+        // event loop. The index entries of both are reloaded under the locks, as event-loop code cannot wait on
+        // the node's striped locks and so may run beside a blocking create that has not updated the index yet.
+        return constraintIndexLoaded()
+                .chain(() -> fulfillmentRepository.withAssociationLocks(storeId, warehouseCode, connection ->
+                        fulfillmentRepository.findKeys(connection, storeId, warehouseCode)
+                                .invoke(keys -> constraintIndex.refresh(Set.of(storeId), Set.of(warehouseCode), keys))
+                                .chain(() -> fulfillmentRepository.isWarehouseActive(connection, warehouseCode))
+                                .chain(warehouseActive -> validate(storeId, productId, warehouseCode, warehouseActive))
+                                .chain(() -> {
+                                    StoreProductWarehouse association =
+                                            new StoreProductWarehouse(storeId, productId, warehouseCode);
+                                    association.setCreatedAt(LocalDateTime.now());
+                                    return fulfillmentRepository.persist(connection, association);
+                                })))
+                // withAssociationLocks completes once the transaction has committed
+                .invoke(fulfillmentRepository::created)
+                .map(FulfillmentUseCase::toResponse);
+    }
+
+    // A bulk delete may have dropped the index since constraintIndexLoaded, in which case refresh left it
+    // unloaded and the checks would load it through JDBC; they then run on a worker thread instead.
+    private Uni<Void> validate(Long storeId, Long productId, String warehouseCode, boolean warehouseActive) {
+        if (constraintIndex.isLoaded()) {
+            validationService.validateFulfillmentAssociation(storeId, productId, warehouseCode, warehouseActive);
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.createFrom().<Void>item(() -> {
+                    QuarkusTransaction.requiringNew().run(() -> validationService.validateFulfillmentAssociation(
+                            storeId, productId, warehouseCode, warehouseActive));
+                    return null;
+                })
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    // The index answers the other rules from memory once loaded; the one-time load reads through JDBC, so it
+    // is moved off the event loop.
+    private Uni<Void> constraintIndexLoaded() {
+        if (constraintIndex.isLoaded()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.createFrom().<Void>item(() -> {
+                    QuarkusTransaction.requiringNew().run(constraintIndex::load);
+                    return null;
+                })
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+}
@@ -0,0 +1,85 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of known locations indexed by identification. Never modified after construction, so it can be
+ * shared between threads and swapped as a whole when the catalog is reloaded.
+ *
+ * <p>The file format is one location per line, {@code identification,maxNumberOfWarehouses,maxCapacity}.
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+public final class LocationCatalog {
+
+  private final Map<String, Location> locationsByIdentifier;
+
+  private LocationCatalog(Map<String, Location> locationsByIdentifier) {
+    this.locationsByIdentifier = Collections.unmodifiableMap(locationsByIdentifier);
+  }
+
+  public static LocationCatalog of(Collection<Location> locations) {
+    // sized so that the map never rehashes while it is filled
+    Map<String, Location> index = new HashMap<>((int) (locations.size() / 0.75f) + 1);
+    for (Location location : locations) {
+      if (index.putIfAbsent(location.getIdentification(), location) != null) {
+        throw new IllegalArgumentException(
+                "Duplicate location identification '" + location.getIdentification() + "'");
+      }
+    }
+    return new LocationCatalog(index);
+  }
+
+  public static LocationCatalog load(Path path) throws IOException {
+    List<Location> locations = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        locations.add(parse(line, lineNumber));
+      }
+    }
+    return of(locations);
+  }
+
+  public Location find(String identifier) {
+    return locationsByIdentifier.get(identifier);
+  }
+
+  public int size() {
+    return locationsByIdentifier.size();
+  }
+
+  private static Location parse(String line, int lineNumber) {
+    String[] fields = line.split(",");
+    if (fields.length != 3) {
+      throw new IllegalArgumentException(
+              "Invalid location catalog line " + lineNumber + ": expected 3 fields but got " + fields.length);
+    }
+
+    try {
+      return new Location(
+              fields[0].trim(),
+              Integer.parseInt(fields[1].trim()),
+              Integer.parseInt(fields[2].trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid location catalog line " + lineNumber + ": " + e.getMessage());
+    }
+  }
+}
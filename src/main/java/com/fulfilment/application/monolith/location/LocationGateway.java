@@ -2,25 +2,82 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
-
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocationGateway.class);
+
+  private static final LocationCatalog DEFAULT_CATALOG = LocationCatalog.of(List.of(
+          new Location("ZWOLLE-001", 1, 40),
+          new Location("ZWOLLE-002", 2, 50),
+          new Location("AMSTERDAM-001", 5, 100),
+          new Location("AMSTERDAM-002", 3, 75),
+          new Location("TILBURG-001", 1, 40),
+          new Location("HELMOND-001", 1, 45),
+          new Location("EINDHOVEN-001", 2, 70),
+          new Location("VETSBY-001", 1, 90)));
+
+  // when set, the catalog is loaded from this file instead of the built-in locations
+  @ConfigProperty(name = "location.catalog.path")
+  Optional<String> catalogPath;
+
+  @ConfigProperty(name = "location.catalog.refresh-interval", defaultValue = "30s")
+  Duration refreshInterval;
+
+  // replaced as a whole on reload, so readers never lock and always see a complete catalog
+  private volatile LocationCatalog catalog = DEFAULT_CATALOG;
+
+  private volatile FileTime catalogModifiedAt;
+
+  private ScheduledExecutorService refresher;
+
+  void onStart(@Observes StartupEvent event) {
+    if (catalogPath == null || catalogPath.isEmpty()) {
+      return;
+    }
+
+    Path path = Path.of(catalogPath.get());
+    try {
+      loadCatalog(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load location catalog from " + path, e);
+    }
+
+    refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "location-catalog-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMillis = refreshInterval.toMillis();
+    refresher.scheduleWithFixedDelay(
+            () -> reloadIfChanged(path), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
   }
 
   @Override
@@ -29,9 +86,26 @@ public class LocationGateway implements LocationResolver {
       return null;
     }
 
-    return locations.stream()
-            .filter(location -> location.getIdentification().equals(identifier))
-            .findFirst()
-            .orElse(null);
+    return catalog.find(identifier);
+  }
+
+  void reloadIfChanged(Path path) {
+    try {
+      if (!Files.getLastModifiedTime(path).equals(catalogModifiedAt)) {
+        loadCatalog(path);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error("Failed to reload location catalog from {}, keeping the current one", path, e);
+    }
+  }
+
+  private void loadCatalog(Path path) throws IOException {
+    // read the timestamp first so a change made while loading is picked up by the next check
+    FileTime modifiedAt = Files.getLastModifiedTime(path);
+    LocationCatalog loaded = LocationCatalog.load(path);
+
+    catalog = loaded;
+    catalogModifiedAt = modifiedAt;
+    LOGGER.info("Location catalog loaded from {} with {} locations", path, loaded.size());
   }
 }
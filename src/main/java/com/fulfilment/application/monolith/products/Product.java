@@ -5,11 +5,18 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import org.hibernate.jpa.AvailableHints;
 
 @Entity
 @Cacheable
+@NamedQuery(name = "Product.listAllByName", query = "FROM Product ORDER BY name", hints = {
+    @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Product.QUERY_CACHE_REGION)})
 public class Product {
+  public static final String QUERY_CACHE_REGION = "product-queries";
 
   @Id @GeneratedValue public Long id;
 
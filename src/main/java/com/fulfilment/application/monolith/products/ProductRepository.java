@@ -1,7 +1,18 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
 
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+@QueryLogged
+public class ProductRepository implements PanacheRepository<Product> {
+
+  /**
+   * All products ordered by name, served from the query cache until a product changes.
+   */
+  public List<Product> listAllByName() {
+    return list("#Product.listAllByName");
+  }
+}
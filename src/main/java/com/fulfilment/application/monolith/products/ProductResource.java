@@ -1,8 +1,9 @@
 package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import com.fulfilment.application.monolith.concurrency.JdbcBound;
+import com.fulfilment.application.monolith.errors.ErrorResponses;
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -18,13 +19,16 @@ import java.util.List;
 
 @Path("product")
 @ApplicationScoped
+@JdbcBound
 @Produces("application/json")
 @Consumes("application/json")
 public class ProductResource {
   private static final String PRODUCT_NOT_FOUND = "Product with id of %d does not exist.";
-  private static final String INVALID_ID = "Id was invalidly set on request.";
-  private static final String PRODUCT_NOT_SET = "Product Name was not set on request.";
   public static final int UNPROCESSABLE_ENTITY = 422;
+  private static final RequestRejectedException INVALID_ID =
+      RequestRejectedException.preallocated("Id was invalidly set on request.", UNPROCESSABLE_ENTITY);
+  private static final RequestRejectedException PRODUCT_NOT_SET =
+      RequestRejectedException.preallocated("Product Name was not set on request.", UNPROCESSABLE_ENTITY);
 
   @Inject ProductRepository productRepository;
 
@@ -32,7 +36,7 @@ public class ProductResource {
 
   @GET
   public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+    return productRepository.listAllByName();
   }
 
   @GET
@@ -40,7 +44,7 @@ public class ProductResource {
   public Product getSingle(@PathParam("id") Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
-      throw new WebApplicationException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
     return entity;
   }
@@ -49,7 +53,7 @@ public class ProductResource {
   @Transactional
   public Response create(@Valid Product product) {
     if (product.id != null) {
-      throw new WebApplicationException(INVALID_ID, UNPROCESSABLE_ENTITY);
+      throw INVALID_ID;
     }
 
     productRepository.persist(product);
@@ -62,13 +66,13 @@ public class ProductResource {
   @Transactional
   public Product update(@PathParam("id") Long id, Product product) {
     if (product.name == null) {
-      throw new WebApplicationException(PRODUCT_NOT_SET, UNPROCESSABLE_ENTITY);
+      throw PRODUCT_NOT_SET;
     }
 
     Product entity = productRepository.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
 
     entity.name = product.name;
@@ -88,7 +92,7 @@ public class ProductResource {
   public Response delete(@PathParam("id") Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
-      throw new WebApplicationException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(PRODUCT_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
     productRepository.delete(entity);
     LOGGER.info("Product with id {} deleted successfully", id);
@@ -102,22 +106,7 @@ public class ProductResource {
 
     @Override
     public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
+      return ErrorResponses.toResponse(objectMapper, exception);
     }
   }
 }
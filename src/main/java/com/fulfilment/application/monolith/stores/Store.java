@@ -4,16 +4,23 @@ import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.jpa.AvailableHints;
 
 @Entity
 @Cacheable
+@NamedQuery(name = "Store.listAllByName", query = "FROM Store ORDER BY name", hints = {
+    @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Store.QUERY_CACHE_REGION)})
 @Getter
 @Setter
 public class Store extends PanacheEntity {
+  public static final String QUERY_CACHE_REGION = "store-queries";
 
   @Column(length = 40, unique = true)
   @NotNull
@@ -5,31 +5,30 @@ import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 
-import java.util.logging.Logger;
-
 @ApplicationScoped
 public class StoreLegacySystemSyncService {
 
     @Inject
-    LegacyStoreManagerGateway legacyStoreManagerGateway;
+    StoreOutboxRepository storeOutboxRepository;
+
+    @Inject
+    StoreOutboxRelay storeOutboxRelay;
 
-    private static final Logger LOGGER = Logger.getLogger(StoreLegacySystemSyncService.class.getName());
+    // Observed synchronously so the outbox row commits or rolls back together with the store change
+    public void onStoreCreated(@Observes StoreCreatedEvent event) {
+        storeOutboxRepository.persist(new StoreOutboxEvent(event.getStore().id, StoreOutboxEvent.Type.CREATED));
+    }
+
+    public void onStoreUpdated(@Observes StoreUpdatedEvent event) {
+        storeOutboxRepository.persist(new StoreOutboxEvent(event.getStore().id, StoreOutboxEvent.Type.UPDATED));
+    }
 
-    public void onStoreCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreCreatedEvent event) {
-        try {
-            legacyStoreManagerGateway.createStoreOnLegacySystem(event.getStore());
-        } catch (Exception e) {
-            LOGGER.severe("Failed to sync created store to legacy system: " + e.getMessage());
-            // Consider implementing compensation logic or retry mechanism here
-        }
+    // The relay polls anyway, this only shortens the delay after a commit
+    public void afterStoreCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreCreatedEvent event) {
+        storeOutboxRelay.wakeUp();
     }
 
-    public void onStoreUpdated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreUpdatedEvent event) {
-        try {
-            legacyStoreManagerGateway.updateStoreOnLegacySystem(event.getStore());
-        } catch (Exception e) {
-            LOGGER.severe("Failed to sync updated store to legacy system: " + e.getMessage());
-            // Consider implementing compensation logic or retry mechanism here
-        }
+    public void afterStoreUpdated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreUpdatedEvent event) {
+        storeOutboxRelay.wakeUp();
     }
 }
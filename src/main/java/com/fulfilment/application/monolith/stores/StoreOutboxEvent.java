@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A store change that still has to be sent to the legacy system. Written in the same transaction as the
+ * change itself and deleted once the change has been delivered.
+ */
+@Entity
+@Table(
+        name = "store_outbox",
+        indexes = {
+                @Index(name = "idx_store_outbox_available", columnList = "available_at, id")
+        }
+)
+@Getter
+@Setter
+public class StoreOutboxEvent extends PanacheEntity {
+
+    public enum Type {
+        CREATED,
+        UPDATED
+    }
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // the relay skips the event until then, pushed back after each failed delivery
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    public StoreOutboxEvent() {}
+
+    public StoreOutboxEvent(Long storeId, Type type) {
+        this.storeId = storeId;
+        this.type = type;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = this.createdAt;
+    }
+}
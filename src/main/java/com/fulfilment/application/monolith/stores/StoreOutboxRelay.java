@@ -0,0 +1,293 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the events of the store outbox to the legacy system, at least once.
+ *
+ * <p>Each batch is claimed per store in its own transaction, a store by one node at a time, so several nodes
+ * can run the relay side by side. Events in a batch are coalesced per store and the store's current state is
+ * sent, as a creation when any of its events is one. Delivered events are deleted in the same transaction.
+ * When a store's delivery fails, all of its events, including those written since the batch was claimed, are
+ * retried later with exponential backoff, and none is sent before them.
+ *
+ * <p>The relay keeps the backlog, the lag of its last batch and the batch sizes, along with counts of the
+ * changes delivered, coalesced and retried and of the failed sends, as {@code store.outbox.*} metrics.
+ */
+@ApplicationScoped
+public class StoreOutboxRelay {
+
+    private static final Logger LOGGER = Logger.getLogger(StoreOutboxRelay.class.getName());
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    @Inject
+    StoreOutboxRepository outboxRepository;
+
+    @Inject
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "store-outbox.relay.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "store-outbox.batch-size", defaultValue = "100")
+    int batchSize;
+
+    @ConfigProperty(name = "store-outbox.poll-interval", defaultValue = "1s")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "store-outbox.retry-backoff", defaultValue = "1s")
+    Duration retryBackoff;
+
+    // not a monitor: wakeUp runs on request threads, which must not pin when they are virtual
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUpCondition = lock.newCondition();
+    private boolean wakeUpRequested;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    // as of the last batch, so a scrape reads a field rather than counting the outbox
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("store.outbox.backlog", backlog, AtomicLong::get)
+                .description("Store changes waiting to be sent to the legacy system, as of the last batch")
+                .register(meterRegistry);
+        TimeGauge.builder("store.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest store change in the last batch, how far the legacy system is behind")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("store.outbox.batch.size")
+                .description("Store changes claimed per batch")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.outbox.delivered", delivered, AtomicLong::get)
+                .description("Store changes sent to the legacy system")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.outbox.retried", retried, AtomicLong::get)
+                .description("Store changes scheduled for another attempt after a failed send")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.outbox.failed", failed, AtomicLong::get)
+                .description("Stores whose send to the legacy system failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.outbox.coalesced", coalesced, AtomicLong::get)
+                .description("Store changes merged into the send of a later change to the same store")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::run, "store-outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        wakeUp();
+
+        if (worker != null) {
+            try {
+                worker.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Makes the relay look at the outbox now instead of at the next poll.
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            wakeUpRequested = true;
+            wakeUpCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The number of store changes in the outbox when the relay last looked, due or waiting for a retry.
+     */
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Claims and delivers one batch of due events.
+     *
+     * @return the number of events claimed
+     */
+    int relayBatch() {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            List<StoreOutboxEvent> events = outboxRepository.claimBatch(batchSize);
+            if (events.isEmpty()) {
+                lagMillis.set(0);
+                // only events waiting for a retry can be left, and none when the outbox was empty already
+                if (backlog.get() > 0) {
+                    backlog.set(outboxRepository.count());
+                }
+                return 0;
+            }
+            batchSizes.record(events.size());
+
+            LocalDateTime oldest = events.stream()
+                    .map(StoreOutboxEvent::getCreatedAt)
+                    .min(LocalDateTime::compareTo)
+                    .orElseThrow();
+            lagMillis.set(Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+
+            // store id -> whether it has to be created, in the order of the first event
+            Map<Long, Boolean> createdByStore = new LinkedHashMap<>();
+            for (StoreOutboxEvent event : events) {
+                createdByStore.merge(event.getStoreId(), event.getType() == StoreOutboxEvent.Type.CREATED,
+                        Boolean::logicalOr);
+            }
+            coalesced.addAndGet(events.size() - createdByStore.size());
+
+            Map<Long, Store> stores = Store.<Store>list("id in ?1", createdByStore.keySet())
+                    .stream()
+                    .collect(Collectors.toMap(store -> store.id, Function.identity()));
+
+            Set<Long> failedStores = new HashSet<>();
+            createdByStore.forEach((storeId, created) -> {
+                Store store = stores.get(storeId);
+                if (store == null) {
+                    // deleted since, nothing left to send
+                    return;
+                }
+                try {
+                    if (created) {
+                        legacyStoreManagerGateway.createStoreOnLegacySystem(store);
+                    } else {
+                        legacyStoreManagerGateway.updateStoreOnLegacySystem(store);
+                    }
+                    delivered.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    failedStores.add(storeId);
+                    LOGGER.severe("Failed to sync store " + storeId + " to legacy system, will retry: "
+                            + e.getMessage());
+                }
+            });
+
+            List<Long> done = new ArrayList<>(events.size());
+            Map<Long, Integer> attemptsByFailedStore = new HashMap<>();
+            for (StoreOutboxEvent event : events) {
+                if (failedStores.contains(event.getStoreId())) {
+                    attemptsByFailedStore.merge(event.getStoreId(), event.getAttempts() + 1, Math::max);
+                } else {
+                    done.add(event.id);
+                }
+            }
+            attemptsByFailedStore.forEach(this::scheduleRetry);
+            if (!done.isEmpty()) {
+                outboxRepository.deleteByIds(done);
+            }
+            backlog.set(outboxRepository.count());
+
+            return events.size();
+        });
+    }
+
+    private void scheduleRetry(long storeId, int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+            backoff = MAX_RETRY_BACKOFF;
+        }
+
+        retried.addAndGet(outboxRepository.scheduleRetry(storeId, LocalDateTime.now().plus(backoff)));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // a full batch means there is probably more waiting
+                if (relayBatch() < batchSize) {
+                    awaitWakeUp();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.severe("Store outbox relay failed: " + e.getMessage());
+                try {
+                    awaitWakeUp();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitWakeUp() throws InterruptedException {
+        lock.lock();
+        try {
+            if (running && !wakeUpRequested) {
+                wakeUpCondition.await(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            wakeUpRequested = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+@QueryLogged
+public class StoreOutboxRepository implements PanacheRepository<StoreOutboxEvent> {
+
+    // advisory lock space (the first argument of pg_try_advisory_xact_lock) of the stores a relay has claimed
+    static final int RELAY_LOCK_SPACE = 0x5350_0003;
+
+    // Stores whose oldest event is due, in the order of that event. A store with an older event still waiting
+    // for a retry is left out, so its later events are not sent ahead of it. The advisory lock keeps a store
+    // with one relay at a time; the CTEs are materialized so that it is only tried for the stores considered.
+    private static final String CLAIM_BATCH =
+            "WITH due AS MATERIALIZED ("
+                    + " SELECT o.store_id, min(o.id) AS first_id FROM store_outbox o WHERE o.available_at <= :now"
+                    + " AND NOT EXISTS (SELECT 1 FROM store_outbox p"
+                    + " WHERE p.store_id = o.store_id AND p.id < o.id AND p.available_at > :now)"
+                    + " GROUP BY o.store_id ORDER BY first_id LIMIT :limit"
+                    + "), claimed AS MATERIALIZED ("
+                    + " SELECT store_id FROM due WHERE pg_try_advisory_xact_lock(:space, CAST(store_id % 2147483647 AS int))"
+                    + ")"
+                    + " SELECT * FROM store_outbox WHERE store_id IN (SELECT store_id FROM claimed) AND available_at <= :now"
+                    + " ORDER BY id LIMIT :limit FOR UPDATE";
+
+    /**
+     * Locks and returns the oldest events that are due, store by store. A store is claimed by one relay at a
+     * time and only once none of its older events waits for a retry, so that several nodes can drain the outbox
+     * at the same time while each store's events are sent in order. Must be called inside a transaction; the
+     * locks are held until it ends.
+     */
+    @SuppressWarnings("unchecked")
+    public List<StoreOutboxEvent> claimBatch(int limit) {
+        return getEntityManager()
+                .createNativeQuery(CLAIM_BATCH, StoreOutboxEvent.class)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("limit", limit)
+                .setParameter("space", RELAY_LOCK_SPACE)
+                .getResultList();
+    }
+
+    /**
+     * Pushes all events of the store back to the given time, the claimed ones along with those written since,
+     * counting another attempt for each.
+     *
+     * @return the number of events rescheduled
+     */
+    public long scheduleRetry(long storeId, LocalDateTime availableAt) {
+        return update("attempts = attempts + 1, availableAt = ?1 where storeId = ?2", availableAt, storeId);
+    }
+
+    public long deleteByIds(Collection<Long> ids) {
+        return delete("id in ?1", ids);
+    }
+}
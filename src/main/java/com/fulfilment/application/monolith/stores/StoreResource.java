@@ -1,8 +1,9 @@
 package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import com.fulfilment.application.monolith.concurrency.JdbcBound;
+import com.fulfilment.application.monolith.errors.ErrorResponses;
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -15,23 +16,24 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 import java.util.List;
-import org.jboss.logging.Logger;
 import jakarta.enterprise.event.Event;
 
 @Path("store")
 @ApplicationScoped
+@JdbcBound
 @Produces("application/json")
 @Consumes("application/json")
 public class StoreResource {
   private static final String STORE_NOT_FOUND = "Store with id of %d does not exist.";
-  private static final String STORE_NOT_SET = "Store Name was not set on request.";
-  private static final String INVALID_ID = "Id was invalidly set on request.";
   public static final int UNPROCESSABLE_ENTITY = 422;
+  private static final RequestRejectedException STORE_NOT_SET =
+      RequestRejectedException.preallocated("Store Name was not set on request.", UNPROCESSABLE_ENTITY);
+  private static final RequestRejectedException INVALID_ID =
+      RequestRejectedException.preallocated("Id was invalidly set on request.", UNPROCESSABLE_ENTITY);
 
   @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
 
@@ -39,11 +41,9 @@ public class StoreResource {
 
   @Inject Event<StoreUpdatedEvent> storeUpdatedEvent;
 
-  private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
-
   @GET
   public List<Store> get() {
-    return Store.listAll(Sort.by("name"));
+    return Store.list("#Store.listAllByName");
   }
 
   @GET
@@ -51,7 +51,7 @@ public class StoreResource {
   public Store getSingle(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
-      throw new WebApplicationException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
     return entity;
   }
@@ -60,7 +60,7 @@ public class StoreResource {
   @Transactional
   public Response create(@Valid Store store) {
     if (store.id != null) {
-      throw new WebApplicationException(INVALID_ID, UNPROCESSABLE_ENTITY);
+      throw INVALID_ID;
     }
 
     store.persist();
@@ -75,13 +75,13 @@ public class StoreResource {
   @Transactional
   public Store update(Long id, Store updatedStore) {
     if (updatedStore.getName() == null) {
-      throw new WebApplicationException(STORE_NOT_SET, UNPROCESSABLE_ENTITY);
+      throw STORE_NOT_SET;
     }
 
     Store entity = Store.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
 
     entity.setName(updatedStore.getName());
@@ -97,13 +97,13 @@ public class StoreResource {
   @Transactional
   public Store patch(Long id, Store updatedStore) {
     if (updatedStore.getName() == null) {
-      throw new WebApplicationException(STORE_NOT_SET, UNPROCESSABLE_ENTITY);
+      throw STORE_NOT_SET;
     }
 
     Store entity = Store.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
 
     if (entity.getName() != null) {
@@ -125,7 +125,7 @@ public class StoreResource {
   public Response delete(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
-      throw new WebApplicationException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
+      throw new RequestRejectedException(String.format(STORE_NOT_FOUND, id), Response.Status.NOT_FOUND);
     }
     entity.delete();
     return Response.status(204).build();
@@ -138,22 +138,7 @@ public class StoreResource {
 
     @Override
     public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
+      return ErrorResponses.toResponse(objectMapper, exception);
     }
   }
 }
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Number and summed capacity of the active warehouses at a location, kept up to date by
+ * {@link LocationCapacityRepository}.
+ */
+@Entity
+@Table(name = "location_capacity")
+public class DbLocationCapacity extends PanacheEntityBase {
+
+  @Id
+  @Column(name = "location")
+  public String location;
+
+  @Column(name = "warehouseCount", nullable = false)
+  public int warehouseCount;
+
+  @Column(name = "totalCapacity", nullable = false)
+  public int totalCapacity;
+
+  public DbLocationCapacity() {}
+}
@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "stock_movement",
+        // idx_stock_movement_pending is a partial index, which only the migrations in db/migration can express
+        indexes = {
+                @Index(name = "idx_stock_movement_history", columnList = "businessUnitCode, id")
+        }
+)
+public class DbStockMovement extends PanacheEntityBase {
+
+  // ids are taken from the sequence in blocks, so a batch of appends does not go to the sequence per row
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+  @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
+  @Column(name = "id")
+  public Long id;
+
+  @Column(name = "businessUnitCode", nullable = false)
+  public String businessUnitCode;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "type", nullable = false, length = 16)
+  public StockMovement.Type type;
+
+  @Column(name = "quantity", nullable = false)
+  public int quantity;
+
+  @Column(name = "createdAt", nullable = false)
+  public LocalDateTime createdAt;
+
+  // whether the quantity has been added to the stock column of the active warehouse
+  @Column(name = "applied", nullable = false)
+  public boolean applied;
+
+  public DbStockMovement() {}
+
+  public static DbStockMovement fromStockMovement(StockMovement movement) {
+    DbStockMovement dbMovement = new DbStockMovement();
+    dbMovement.businessUnitCode = movement.businessUnitCode;
+    dbMovement.type = movement.type;
+    dbMovement.quantity = movement.quantity;
+    dbMovement.createdAt = movement.createdAt;
+    return dbMovement;
+  }
+
+  public StockMovement toStockMovement() {
+    var movement = new StockMovement();
+    movement.id = this.id;
+    movement.businessUnitCode = this.businessUnitCode;
+    movement.type = this.type;
+    movement.quantity = this.quantity;
+    movement.createdAt = this.createdAt;
+    return movement;
+  }
+}
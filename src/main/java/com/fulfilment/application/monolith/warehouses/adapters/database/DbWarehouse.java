@@ -3,13 +3,13 @@ package com.fulfilment.application.monolith.warehouses.adapters.database;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "warehouse")
-@Cacheable
 public class DbWarehouse extends PanacheEntityBase {
 
   @Id
@@ -28,6 +28,11 @@ public class DbWarehouse extends PanacheEntityBase {
   @Column(name = "stock")
   public Integer stock;
 
+  // stock promised to orders, written behind by StockReservations
+  @ColumnDefault("0")
+  @Column(name = "reserved", nullable = false)
+  public int reserved;
+
   @Column(name = "createdAt")
   public LocalDateTime createdAt;
 
@@ -0,0 +1,122 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationCapacity;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Per-location totals of the active warehouses, so the location limits are checked by reading one row instead
+ * of scanning the warehouses. {@link WarehouseRepository} adjusts the totals in the same transaction as every
+ * warehouse write, and the totals are recomputed from the warehouse table when the application starts, which
+ * picks up rows written by the load scripts or outside the application.
+ */
+@ApplicationScoped
+@QueryLogged
+public class LocationCapacityRepository implements PanacheRepositoryBase<DbLocationCapacity, String> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocationCapacityRepository.class);
+
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  /**
+   * Returns the totals of the given locations and locks their rows until the transaction ends, so concurrent
+   * creates and replacements at the same location check and update the totals one after the other. Rows are
+   * locked in location order to keep two transactions locking the same pair of locations from deadlocking.
+   */
+  @Transactional
+  @Timed("repository.query")
+  public Map<String, LocationCapacity> lock(Collection<String> locations) {
+    TreeSet<String> sorted = new TreeSet<>();
+    locations.stream().filter(Objects::nonNull).forEach(sorted::add);
+    if (sorted.isEmpty()) {
+      return Map.of();
+    }
+
+    // a location without warehouses has no row yet, and a missing row cannot be locked
+    for (String location : sorted) {
+      getEntityManager()
+              .createNativeQuery("INSERT INTO location_capacity (location, warehouseCount, totalCapacity)"
+                      + " VALUES (:location, 0, 0) ON CONFLICT (location) DO NOTHING")
+              .unwrap(NativeQuery.class)
+              .addSynchronizedEntityClass(DbLocationCapacity.class)
+              .setParameter("location", location)
+              .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = getEntityManager()
+            .createNativeQuery("SELECT location, warehouseCount, totalCapacity FROM location_capacity"
+                    + " WHERE location IN (:locations) ORDER BY location FOR UPDATE")
+            .setParameter("locations", sorted)
+            .getResultList();
+
+    Map<String, LocationCapacity> capacities = new HashMap<>();
+    for (Object[] row : rows) {
+      String location = (String) row[0];
+      capacities.put(location, new LocationCapacity(
+              location, ((Number) row[1]).intValue(), ((Number) row[2]).intValue()));
+    }
+    return capacities;
+  }
+
+  /**
+   * Adds the given number of warehouses and capacity, either of which may be negative, to the totals of a
+   * location. Must run in the transaction of the warehouse write it accounts for.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  @Timed("repository.query")
+  public void adjust(String location, int warehouses, int capacity) {
+    if (location == null || (warehouses == 0 && capacity == 0)) {
+      return;
+    }
+
+    getEntityManager()
+            .createNativeQuery("INSERT INTO location_capacity (location, warehouseCount, totalCapacity)"
+                    + " VALUES (:location, :warehouses, :capacity)"
+                    + " ON CONFLICT (location) DO UPDATE SET"
+                    + " warehouseCount = location_capacity.warehouseCount + EXCLUDED.warehouseCount,"
+                    + " totalCapacity = location_capacity.totalCapacity + EXCLUDED.totalCapacity")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(DbLocationCapacity.class)
+            .setParameter("location", location)
+            .setParameter("warehouses", warehouses)
+            .setParameter("capacity", capacity)
+            .executeUpdate();
+  }
+
+  /**
+   * Recomputes every location's totals from the active warehouses. The table lock makes warehouse writes that
+   * adjust the totals wait, and waits for those already under way, so none of them is counted twice or lost.
+   */
+  @Transactional
+  @Timed("repository.query")
+  public void rebuild() {
+    getEntityManager().createNativeQuery("LOCK TABLE location_capacity IN EXCLUSIVE MODE").executeUpdate();
+    getEntityManager().createNativeQuery("DELETE FROM location_capacity").executeUpdate();
+    int locations = getEntityManager()
+            .createNativeQuery("INSERT INTO location_capacity (location, warehouseCount, totalCapacity)"
+                    + " SELECT location, COUNT(*), COALESCE(SUM(capacity), 0) FROM warehouse"
+                    + " WHERE archivedAt IS NULL AND location IS NOT NULL GROUP BY location")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(DbLocationCapacity.class)
+            .executeUpdate();
+    LOGGER.info("Capacity of {} locations recomputed", locations);
+  }
+}
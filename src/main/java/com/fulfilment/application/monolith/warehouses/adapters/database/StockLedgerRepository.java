@@ -0,0 +1,169 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The stock ledger: an append-only table of stock movements per business unit.
+ *
+ * <p>Appending only inserts rows, so any number of movements for the same warehouse can be recorded at once
+ * without waiting on each other. The warehouse's stock column is a snapshot that {@link #applyPending} moves
+ * forward periodically, adding up the movements recorded since in one update per warehouse. The current stock
+ * is that snapshot plus the movements not yet applied, which are only those of the last interval.
+ */
+@ApplicationScoped
+@QueryLogged
+public class StockLedgerRepository implements PanacheRepositoryBase<DbStockMovement, Long> {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  /**
+   * Records the movements and assigns their ids. The rows are inserted in JDBC batches when the transaction
+   * is flushed.
+   */
+  @Transactional
+  @Timed("repository.query")
+  public void append(List<StockMovement> movements) {
+    LocalDateTime now = LocalDateTime.now();
+    for (StockMovement movement : movements) {
+      if (movement.createdAt == null) {
+        movement.createdAt = now;
+      }
+      DbStockMovement dbMovement = DbStockMovement.fromStockMovement(movement);
+      persist(dbMovement);
+      movement.id = dbMovement.id;
+    }
+  }
+
+  /**
+   * Returns up to {@code limit} movements of the business unit with an id greater than {@code afterId},
+   * oldest first.
+   */
+  @Timed("repository.query")
+  public List<StockMovement> findPage(String businessUnitCode, Long afterId, int limit) {
+    long after = afterId != null ? afterId : 0L;
+    return find("businessUnitCode = ?1 and id > ?2", Sort.by("id"), businessUnitCode, after)
+            .page(Page.ofSize(limit))
+            .stream()
+            .map(DbStockMovement::toStockMovement)
+            .toList();
+  }
+
+  /**
+   * Returns the current stock of the business unit's active warehouse, including the movements not yet
+   * applied to it, or {@code null} when it has no active warehouse.
+   */
+  @Timed("repository.query")
+  public Integer currentStock(String businessUnitCode) {
+    @SuppressWarnings("unchecked")
+    List<Number> stock = getEntityManager()
+            .createNativeQuery("SELECT w.stock + COALESCE((SELECT SUM(m.quantity) FROM stock_movement m"
+                    + " WHERE m.applied = FALSE AND m.businessUnitCode = w.businessUnitCode), 0)"
+                    + " FROM warehouse w WHERE w.businessUnitCode = :code AND w.archivedAt IS NULL")
+            .setParameter("code", businessUnitCode)
+            .getResultList();
+    return stock.isEmpty() ? null : stock.get(0).intValue();
+  }
+
+  /**
+   * Returns the stock levels of the active warehouses of the given business units, or of all active warehouses
+   * when {@code businessUnitCodes} is {@code null}. Runs in a transaction of its own when called from a
+   * background task.
+   */
+  @Transactional
+  @Timed("repository.query")
+  public List<StockLevel> findStockLevels(Collection<String> businessUnitCodes) {
+    if (businessUnitCodes != null && businessUnitCodes.isEmpty()) {
+      return List.of();
+    }
+
+    Query query = getEntityManager()
+            .createNativeQuery("SELECT w.businessUnitCode, w.stock + COALESCE((SELECT SUM(m.quantity) FROM stock_movement m"
+                    + " WHERE m.applied = FALSE AND m.businessUnitCode = w.businessUnitCode), 0), w.reserved"
+                    + " FROM warehouse w WHERE w.archivedAt IS NULL"
+                    + (businessUnitCodes != null ? " AND w.businessUnitCode IN (:codes)" : ""));
+    if (businessUnitCodes != null) {
+      query.setParameter("codes", businessUnitCodes);
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = query.getResultList();
+    return rows.stream()
+            .map(row -> new StockLevel((String) row[0],
+                    row[1] != null ? ((Number) row[1]).intValue() : 0,
+                    ((Number) row[2]).intValue()))
+            .toList();
+  }
+
+  /**
+   * Adds the movements not yet applied to the stock of their business unit's active warehouse.
+   *
+   * @return the number of warehouses whose stock changed
+   */
+  @Transactional
+  @Timed("repository.query")
+  public int applyPending() {
+    // locked first, so the warehouses cannot be archived or replaced while their movements are applied
+    @SuppressWarnings("unchecked")
+    List<Object[]> warehouses = getEntityManager()
+            .createNativeQuery("SELECT w.id, w.businessUnitCode FROM warehouse w WHERE w.archivedAt IS NULL"
+                    + " AND w.businessUnitCode IN (SELECT m.businessUnitCode FROM stock_movement m WHERE m.applied = FALSE)"
+                    + " ORDER BY w.id FOR UPDATE OF w")
+            .getResultList();
+    if (warehouses.isEmpty()) {
+      return 0;
+    }
+
+    int updated = apply(warehouses.stream().map(warehouse -> (String) warehouse[0]).toList());
+    warehouses.forEach(warehouse -> warehouseRepository.evict((String) warehouse[1]));
+    return updated;
+  }
+
+  /**
+   * Adds the movements not yet applied to the stock of a warehouse the caller has locked with
+   * {@link WarehouseRepository#lockActiveByBusinessUnitCode}, and updates {@code warehouse.stock} to match.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  @Timed("repository.query")
+  public void applyPending(Warehouse warehouse) {
+    if (apply(List.of(warehouse.id)) > 0) {
+      warehouseRepository.evict(warehouse.businessUnitCode);
+    }
+    warehouse.stock = ((Number) getEntityManager()
+            .createNativeQuery("SELECT stock FROM warehouse WHERE id = :id")
+            .setParameter("id", warehouse.id)
+            .getSingleResult()).intValue();
+  }
+
+  private int apply(List<String> warehouseIds) {
+    return getEntityManager()
+            .createNativeQuery("WITH applied AS ("
+                    + " UPDATE stock_movement m SET applied = TRUE WHERE m.applied = FALSE"
+                    + " AND m.businessUnitCode IN (SELECT businessUnitCode FROM warehouse WHERE id IN (:ids))"
+                    + " RETURNING m.businessUnitCode, m.quantity)"
+                    + " UPDATE warehouse w SET stock = w.stock + d.quantity"
+                    + " FROM (SELECT businessUnitCode, SUM(quantity) AS quantity FROM applied GROUP BY businessUnitCode) d"
+                    + " WHERE w.id IN (:ids) AND w.businessUnitCode = d.businessUnitCode")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(DbStockMovement.class)
+            .addSynchronizedEntityClass(DbWarehouse.class)
+            .setParameter("ids", warehouseIds)
+            .executeUpdate();
+  }
+}
@@ -0,0 +1,280 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.InsufficientStockException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserves warehouse stock for orders against in-memory available-to-promise counters, one per business unit.
+ * A reservation is a compare-and-set on its warehouse's counter and touches neither a lock nor the database.
+ *
+ * <p>The reserved quantities are written behind: a background task adds the change since its last run to
+ * {@code warehouse.reserved}, one update per warehouse, and re-reads the stock, so movements recorded
+ * elsewhere reach the counters within an interval. The counters are rebuilt from the database when the
+ * application starts. Reservations made since the last write are lost if the process dies, and the counters
+ * are local to the node, so reservations must be served by a single instance.
+ */
+@ApplicationScoped
+public class StockReservations {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StockReservations.class);
+
+  @ConfigProperty(name = "warehouse.reservations.flush.enabled", defaultValue = "true")
+  boolean flushEnabled;
+
+  @ConfigProperty(name = "warehouse.reservations.flush.interval", defaultValue = "200ms")
+  Duration flushInterval;
+
+  @Inject
+  StockLedgerRepository stockLedgerRepository;
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService flusher;
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+    if (!flushEnabled) {
+      return;
+    }
+
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stock-reservations-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMillis = flushInterval.toMillis();
+    flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+    // whatever the last run left is written before the application goes down
+    flushQuietly();
+  }
+
+  /**
+   * Replaces the counters with the stock and reservations of the active warehouses as stored in the database.
+   */
+  public void rebuild() {
+    counters.clear();
+    List<StockLevel> levels = stockLedgerRepository.findStockLevels(null);
+    levels.forEach(level -> counters.put(level.businessUnitCode(), new Counter(level.stock(), level.reserved())));
+    LOGGER.info("Stock reservation counters of {} warehouses rebuilt", levels.size());
+  }
+
+  /**
+   * Reserves {@code quantity} units of the warehouse's stock.
+   *
+   * @return the stock level after the reservation, or {@code null} when the business unit has no active warehouse
+   * @throws InsufficientStockException when less than {@code quantity} units are available
+   */
+  public StockLevel reserve(String businessUnitCode, int quantity) {
+    Counter counter = counter(businessUnitCode);
+    if (counter == null) {
+      return null;
+    }
+    return counter.reserve(businessUnitCode, quantity);
+  }
+
+  /**
+   * Releases {@code quantity} units reserved at the warehouse, for an order that was shipped or cancelled.
+   *
+   * @return the stock level after the release, or {@code null} when the business unit has no active warehouse
+   * @throws InsufficientStockException when less than {@code quantity} units are reserved
+   */
+  public StockLevel release(String businessUnitCode, int quantity) {
+    Counter counter = counter(businessUnitCode);
+    if (counter == null) {
+      return null;
+    }
+    return counter.release(businessUnitCode, quantity);
+  }
+
+  /**
+   * Returns the warehouse's stock level as the counters see it, or {@code null} when it has no active warehouse.
+   */
+  public StockLevel stockLevel(String businessUnitCode) {
+    Counter counter = counter(businessUnitCode);
+    return counter != null ? counter.level(businessUnitCode) : null;
+  }
+
+  /**
+   * Re-reads the stock of the given business units, after movements were recorded for them.
+   */
+  public void refresh(Set<String> businessUnitCodes) {
+    Map<String, StockLevel> levels = new HashMap<>();
+    stockLedgerRepository.findStockLevels(businessUnitCodes)
+            .forEach(level -> levels.put(level.businessUnitCode(), level));
+    for (String code : businessUnitCodes) {
+      StockLevel level = levels.get(code);
+      if (level == null) {
+        // archived
+        counters.remove(code);
+      } else {
+        Counter counter = counters.get(code);
+        if (counter != null) {
+          counter.setStock(level.stock());
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the reservations made since the last write to the database and re-reads the stock of every
+   * warehouse with a counter.
+   */
+  public void flush() {
+    Map<String, Integer> deltas = new HashMap<>();
+    counters.forEach((code, counter) -> {
+      int delta = counter.unflushed.getAndSet(0);
+      if (delta != 0) {
+        deltas.put(code, delta);
+      }
+    });
+
+    if (!deltas.isEmpty()) {
+      Set<String> missing;
+      try {
+        missing = warehouseRepository.addReserved(deltas);
+      } catch (RuntimeException e) {
+        // kept for the next run
+        deltas.forEach((code, delta) -> {
+          Counter counter = counters.get(code);
+          if (counter != null) {
+            counter.unflushed.addAndGet(delta);
+          }
+        });
+        throw e;
+      }
+      // a replacement that committed while the update waited for its row; the next run finds the new row
+      for (String code : missing) {
+        Counter counter = counters.get(code);
+        if (counter != null) {
+          counter.unflushed.addAndGet(deltas.get(code));
+        }
+      }
+    }
+
+    if (!counters.isEmpty()) {
+      refresh(Set.copyOf(counters.keySet()));
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to write stock reservations", e);
+    }
+  }
+
+  // loads the counter of a warehouse created since the counters were built
+  private Counter counter(String businessUnitCode) {
+    if (businessUnitCode == null) {
+      return null;
+    }
+
+    Counter counter = counters.get(businessUnitCode);
+    if (counter != null) {
+      return counter;
+    }
+    List<StockLevel> levels = stockLedgerRepository.findStockLevels(List.of(businessUnitCode));
+    if (levels.isEmpty()) {
+      return null;
+    }
+    StockLevel level = levels.get(0);
+    return counters.computeIfAbsent(businessUnitCode, code -> new Counter(level.stock(), level.reserved()));
+  }
+
+  /**
+   * Stock and reserved units of one warehouse, packed into a single long so both change in one compare-and-set.
+   */
+  private static final class Counter {
+    private final AtomicLong state;
+
+    // reserved units not yet written to the database
+    private final AtomicInteger unflushed = new AtomicInteger();
+
+    Counter(int stock, int reserved) {
+      state = new AtomicLong(pack(stock, reserved));
+    }
+
+    StockLevel reserve(String businessUnitCode, int quantity) {
+      while (true) {
+        long current = state.get();
+        int stock = stock(current);
+        int reserved = reserved(current);
+        if (stock - reserved < quantity) {
+          throw new InsufficientStockException("Cannot reserve " + quantity + " units at warehouse "
+                  + businessUnitCode + ", only " + Math.max(0, stock - reserved) + " available");
+        }
+        if (state.compareAndSet(current, pack(stock, reserved + quantity))) {
+          unflushed.addAndGet(quantity);
+          return new StockLevel(businessUnitCode, stock, reserved + quantity);
+        }
+      }
+    }
+
+    StockLevel release(String businessUnitCode, int quantity) {
+      while (true) {
+        long current = state.get();
+        int stock = stock(current);
+        int reserved = reserved(current);
+        if (reserved < quantity) {
+          throw new InsufficientStockException("Cannot release " + quantity + " units at warehouse "
+                  + businessUnitCode + ", only " + reserved + " reserved");
+        }
+        if (state.compareAndSet(current, pack(stock, reserved - quantity))) {
+          unflushed.addAndGet(-quantity);
+          return new StockLevel(businessUnitCode, stock, reserved - quantity);
+        }
+      }
+    }
+
+    void setStock(int stock) {
+      state.updateAndGet(current -> pack(stock, reserved(current)));
+    }
+
+    StockLevel level(String businessUnitCode) {
+      long current = state.get();
+      return new StockLevel(businessUnitCode, stock(current), reserved(current));
+    }
+
+    private static long pack(int stock, int reserved) {
+      return ((long) stock << 32) | (reserved & 0xFFFF_FFFFL);
+    }
+
+    private static int stock(long state) {
+      return (int) (state >> 32);
+    }
+
+    private static int reserved(long state) {
+      return (int) state;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically applies the recorded stock movements to the warehouses' stock, which keeps the number of
+ * movements a stock read has to add up small. One update per warehouse covers all of its movements since the
+ * last run, however many there were.
+ */
+@ApplicationScoped
+public class StockSnapshotJob {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StockSnapshotJob.class);
+
+  @ConfigProperty(name = "warehouse.stock.snapshot.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "warehouse.stock.snapshot.interval", defaultValue = "1s")
+  Duration interval;
+
+  @Inject
+  StockLedgerRepository stockLedgerRepository;
+
+  private ScheduledExecutorService scheduler;
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stock-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMillis = interval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  void snapshot() {
+    try {
+      int warehouses = stockLedgerRepository.applyPending();
+      if (warehouses > 0) {
+        LOGGER.debug("Stock movements applied to {} warehouses", warehouses);
+      }
+    } catch (RuntimeException e) {
+      // the movements stay pending and are applied by the next run
+      LOGGER.error("Failed to apply stock movements", e);
+    }
+  }
+}
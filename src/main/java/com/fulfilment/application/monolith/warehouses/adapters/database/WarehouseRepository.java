@@ -1,22 +1,77 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.diagnostics.QueryLogged;
 import com.fulfilment.application.monolith.products.ProductResource;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Warehouse persistence. Lookups by business unit code are served from two bounded caches, one per query,
+ * holding immutable snapshots of the row found (or of its absence). Every write through this repository
+ * evicts the codes it touches right away and again when its transaction completes, and the rest of that
+ * transaction reads those codes from the database, so neither uncommitted nor rolled-back state is cached.
+ * Writes made outside the application are picked up when the entries expire.
+ *
+ * <p>Every write also adjusts the per-location totals in {@link LocationCapacityRepository} within its transaction.
+ */
 @ApplicationScoped
+@QueryLogged
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
   private static final Logger LOGGER = LoggerFactory.getLogger(WarehouseRepository.class);
 
+  static final String WAREHOUSE_CACHE = "warehouse-by-business-unit-code";
+  static final String ACTIVE_WAREHOUSE_CACHE = "active-warehouse-by-business-unit-code";
+
+  // a multiple of the JDBC batch size
+  private static final int IMPORT_FLUSH_SIZE = 1000;
+
+  // transaction resource holding the business unit codes written in the transaction
+  private static final Object WRITTEN_CODES = new Object();
+
+  @Inject
+  @CacheName(WAREHOUSE_CACHE)
+  Cache warehouseCache;
+
+  @Inject
+  @CacheName(ACTIVE_WAREHOUSE_CACHE)
+  Cache activeWarehouseCache;
+
+  @Inject
+  TransactionSynchronizationRegistry transactionRegistry;
+
+  @Inject
+  LocationCapacityRepository locationCapacityRepository;
+
   @Override
+  @Timed("repository.query")
   public List<Warehouse> getAll() {
     return find("archivedAt is null")  // Only return non-archived warehouses
             .stream()
@@ -26,22 +81,64 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   @Transactional
+  @Timed("repository.query")
   public void create(Warehouse warehouse) {
     DbWarehouse dbWarehouse = DbWarehouse.fromWarehouse(warehouse);
     this.persist(dbWarehouse);
+    if (dbWarehouse.archivedAt == null) {
+      locationCapacityRepository.adjust(dbWarehouse.location, 1, capacityOf(dbWarehouse.capacity));
+    }
+    evict(dbWarehouse.businessUnitCode);
     LOGGER.info("Warehouse {} created successfully", warehouse);
     // Update the warehouse with the generated ID
     warehouse.id = dbWarehouse.id;
   }
 
+  /**
+   * Creates the warehouses in one transaction. The rows go to the database in JDBC batches, and the location
+   * totals are adjusted once per location.
+   */
+  @Transactional
+  @Timed("repository.query")
+  public void createAll(List<Warehouse> warehouses) {
+    Map<String, int[]> totals = new HashMap<>();
+    int persisted = 0;
+    for (Warehouse warehouse : warehouses) {
+      DbWarehouse dbWarehouse = DbWarehouse.fromWarehouse(warehouse);
+      this.persist(dbWarehouse);
+      if (dbWarehouse.archivedAt == null && dbWarehouse.location != null) {
+        int[] total = totals.computeIfAbsent(dbWarehouse.location, location -> new int[2]);
+        total[0]++;
+        total[1] += capacityOf(dbWarehouse.capacity);
+      }
+      evict(dbWarehouse.businessUnitCode);
+      warehouse.id = dbWarehouse.id;
+
+      // keeps the session small on large imports
+      if (++persisted % IMPORT_FLUSH_SIZE == 0) {
+        getEntityManager().flush();
+        getEntityManager().clear();
+      }
+    }
+
+    totals.forEach((location, total) -> locationCapacityRepository.adjust(location, total[0], total[1]));
+    LOGGER.info("{} warehouses created", warehouses.size());
+  }
+
   @Override
   @Transactional
+  @Timed("repository.query")
   public void update(Warehouse warehouse) {
-    DbWarehouse dbWarehouse = this.find("id", warehouse.id).firstResult();
+    // locked, so the location totals are adjusted against the row as it is and not as it was read earlier
+    DbWarehouse dbWarehouse = this.find("id", warehouse.id).withLock(LockModeType.PESSIMISTIC_WRITE).firstResult();
     if (dbWarehouse == null) {
       throw new IllegalArgumentException("Warehouse with id " + warehouse.id + " not found");
     }
 
+    adjustLocationCapacity(dbWarehouse, warehouse);
+
+    evict(dbWarehouse.businessUnitCode);
+    evict(warehouse.businessUnitCode);
     dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
     dbWarehouse.location = warehouse.location;
     dbWarehouse.capacity = warehouse.capacity;
@@ -55,39 +152,156 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   @Transactional
+  @Timed("repository.query")
   public void remove(Warehouse warehouse) {
-    DbWarehouse dbWarehouse = this.find("id", warehouse.id).firstResult();
+    DbWarehouse dbWarehouse = this.find("id", warehouse.id).withLock(LockModeType.PESSIMISTIC_WRITE).firstResult();
     if (dbWarehouse != null) {
       this.delete(dbWarehouse);
+      if (dbWarehouse.archivedAt == null) {
+        locationCapacityRepository.adjust(dbWarehouse.location, -1, -capacityOf(dbWarehouse.capacity));
+      }
+      evict(dbWarehouse.businessUnitCode);
     }
   }
 
+  /**
+   * Returns the active warehouse of the business unit or, when there is none, the one archived last.
+   */
   @Override
+  @Timed("repository.query")
   public Warehouse findByBusinessUnitCode(String buCode) {
-    DbWarehouse dbWarehouse = find("businessUnitCode", buCode).firstResult();
-    return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
+    return findCached(warehouseCache, buCode,
+            () -> find("businessUnitCode",
+                    Sort.by("archivedAt", Sort.Direction.Descending, Sort.NullPrecedence.NULLS_FIRST),
+                    buCode).firstResult());
   }
 
+  @Timed("repository.query")
   public Warehouse findActiveByBusinessUnitCode(String buCode) {
-    DbWarehouse dbWarehouse = find("businessUnitCode = ?1 and archivedAt is null", buCode).firstResult();
-    return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
+    return findCached(activeWarehouseCache, buCode,
+            () -> find("businessUnitCode = ?1 and archivedAt is null", buCode).firstResult());
+  }
+
+  /**
+   * Returns the active warehouse of the business unit and locks its row until the transaction ends, so
+   * concurrent replacements and archivals of the unit wait for the caller. Always reads the database.
+   */
+  @Timed("repository.query")
+  public Warehouse lockActiveByBusinessUnitCode(String buCode) {
+    DbWarehouse dbWarehouse = find("businessUnitCode = ?1 and archivedAt is null", buCode)
+            .withLock(LockModeType.PESSIMISTIC_WRITE)
+            .firstResult();
+    if (dbWarehouse == null) {
+      return null;
+    }
+
+    // replace() changes the row behind Hibernate's back, a managed copy would go stale
+    getEntityManager().detach(dbWarehouse);
+    return dbWarehouse.toWarehouse();
+  }
+
+  /**
+   * Archives {@code current} and inserts {@code replacement} for the same business unit in a single statement,
+   * so other transactions see either the old or the new warehouse as the active one, never both or neither.
+   * The replacement takes over the stock reserved at the current warehouse.
+   * {@code current} should have been locked with {@link #lockActiveByBusinessUnitCode}.
+   *
+   * @throws IllegalStateException when {@code current} is not active (anymore)
+   */
+  @Transactional
+  @Timed("repository.query")
+  public void replace(Warehouse current, Warehouse replacement) {
+    LocalDateTime now = LocalDateTime.now();
+    String id = UUID.randomUUID().toString();
+
+    int inserted = getEntityManager()
+            .createNativeQuery("WITH archived AS ("
+                    + " UPDATE warehouse SET archivedAt = :now WHERE id = :currentId AND archivedAt IS NULL"
+                    + " RETURNING businessUnitCode, reserved)"
+                    + " INSERT INTO warehouse (id, businessUnitCode, location, capacity, stock, reserved, createdAt, archivedAt)"
+                    + " SELECT :id, businessUnitCode, :location, :capacity, :stock, reserved, :now, NULL FROM archived")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(DbWarehouse.class)
+            .setParameter("now", now)
+            .setParameter("currentId", current.id)
+            .setParameter("id", id)
+            .setParameter("location", replacement.location)
+            .setParameter("capacity", replacement.capacity)
+            .setParameter("stock", replacement.stock)
+            .executeUpdate();
+    if (inserted == 0) {
+      throw new IllegalStateException(
+              "Warehouse " + current.businessUnitCode + " with id " + current.id + " is not active");
+    }
+
+    if (current.location != null && current.location.equals(replacement.location)) {
+      locationCapacityRepository.adjust(current.location, 0,
+              capacityOf(replacement.capacity) - capacityOf(current.capacity));
+    } else {
+      locationCapacityRepository.adjust(current.location, -1, -capacityOf(current.capacity));
+      locationCapacityRepository.adjust(replacement.location, 1, capacityOf(replacement.capacity));
+    }
+    evict(current.businessUnitCode);
+
+    current.archivedAt = now;
+    replacement.id = id;
+    replacement.businessUnitCode = current.businessUnitCode;
+    replacement.createdAt = now;
+    replacement.archivedAt = null;
+    LOGGER.info("Warehouse {} replaced by {}", current.id, id);
+  }
+
+  /**
+   * Adds the given quantities, which may be negative, to the stock reserved at the active warehouses of the
+   * business units, and returns the business units that have no active warehouse (anymore).
+   */
+  @Transactional
+  @Timed("repository.query")
+  public Set<String> addReserved(Map<String, Integer> reservedByBusinessUnitCode) {
+    Set<String> missing = new HashSet<>();
+    // in code order, so two flushes of overlapping units cannot deadlock
+    for (Map.Entry<String, Integer> entry : new TreeMap<>(reservedByBusinessUnitCode).entrySet()) {
+      int updated = getEntityManager()
+              .createNativeQuery("UPDATE warehouse SET reserved = reserved + :quantity"
+                      + " WHERE businessUnitCode = :code AND archivedAt IS NULL")
+              .unwrap(NativeQuery.class)
+              .addSynchronizedEntityClass(DbWarehouse.class)
+              .setParameter("quantity", entry.getValue())
+              .setParameter("code", entry.getKey())
+              .executeUpdate();
+      if (updated == 0) {
+        missing.add(entry.getKey());
+      }
+    }
+    return missing;
+  }
+
+  @Timed("repository.query")
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return Set.of();
+    }
+
+    return new HashSet<>(getEntityManager()
+            .createQuery("SELECT w.businessUnitCode FROM DbWarehouse w WHERE w.businessUnitCode IN :codes AND w.archivedAt IS NULL", String.class)
+            .setParameter("codes", buCodes)
+            .getResultList());
   }
 
   // Additional helper methods needed for validation
+  @Timed("repository.query")
   public boolean existsByBusinessUnitCode(String businessUnitCode) {
     return count("businessUnitCode = ?1 and archivedAt is null", businessUnitCode) > 0;
   }
 
-  public int countByLocation(String location) {
-    return (int) count("location = ?1 and archivedAt is null", location);
-  }
-
+  @Timed("repository.query")
   public Warehouse findById(String id) {
     DbWarehouse dbWarehouse = this.find("id", id).firstResult();
     return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
   }
 
   @Transactional
+  @Timed("repository.query")
   public void save(Warehouse warehouse) {
     if (warehouse.id == null) {
       create(warehouse);
@@ -95,4 +309,119 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       update(warehouse);
     }
   }
+
+  // moves the warehouse's share of the location totals from what the row holds to what it is updated to
+  private void adjustLocationCapacity(DbWarehouse before, Warehouse after) {
+    boolean wasActive = before.archivedAt == null;
+    boolean isActive = after.archivedAt == null;
+    int capacityBefore = wasActive ? capacityOf(before.capacity) : 0;
+    int capacityAfter = isActive ? capacityOf(after.capacity) : 0;
+
+    if (Objects.equals(before.location, after.location)) {
+      locationCapacityRepository.adjust(after.location,
+              (isActive ? 1 : 0) - (wasActive ? 1 : 0), capacityAfter - capacityBefore);
+      return;
+    }
+    if (wasActive) {
+      locationCapacityRepository.adjust(before.location, -1, -capacityBefore);
+    }
+    if (isActive) {
+      locationCapacityRepository.adjust(after.location, 1, capacityAfter);
+    }
+  }
+
+  private static int capacityOf(Integer capacity) {
+    return capacity != null ? capacity : 0;
+  }
+
+  private Warehouse findCached(Cache cache, String buCode, Supplier<DbWarehouse> query) {
+    if (buCode == null) {
+      return null;
+    }
+
+    WarehouseSnapshot snapshot;
+    if (writtenInCurrentTransaction(buCode)) {
+      snapshot = WarehouseSnapshot.of(query.get());
+    } else {
+      snapshot = cache.<String, WarehouseSnapshot>get(buCode, code -> WarehouseSnapshot.of(query.get()))
+              .await().indefinitely();
+    }
+    // a copy per caller, which is free to modify it
+    return snapshot != null ? snapshot.toWarehouse() : null;
+  }
+
+  private boolean writtenInCurrentTransaction(String buCode) {
+    if (transactionRegistry.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+      return false;
+    }
+    @SuppressWarnings("unchecked")
+    Set<String> written = (Set<String>) transactionRegistry.getResource(WRITTEN_CODES);
+    return written != null && written.contains(buCode);
+  }
+
+  void evict(String buCode) {
+    if (buCode == null) {
+      return;
+    }
+
+    invalidate(buCode);
+
+    @SuppressWarnings("unchecked")
+    Set<String> written = (Set<String>) transactionRegistry.getResource(WRITTEN_CODES);
+    if (written == null) {
+      Set<String> codes = new HashSet<>();
+      transactionRegistry.putResource(WRITTEN_CODES, codes);
+      transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          // drops whatever concurrent readers cached while the transaction was open
+          codes.forEach(WarehouseRepository.this::invalidate);
+        }
+      });
+      written = codes;
+    }
+    written.add(buCode);
+  }
+
+  private void invalidate(String buCode) {
+    warehouseCache.invalidate(buCode).await().indefinitely();
+    activeWarehouseCache.invalidate(buCode).await().indefinitely();
+  }
+
+  /**
+   * Cached state of a warehouse row. Immutable, so a single entry is shared by every thread.
+   */
+  private record WarehouseSnapshot(
+          String id,
+          String businessUnitCode,
+          String location,
+          Integer capacity,
+          Integer stock,
+          LocalDateTime createdAt,
+          LocalDateTime archivedAt) {
+
+    static WarehouseSnapshot of(DbWarehouse dbWarehouse) {
+      if (dbWarehouse == null) {
+        return null;
+      }
+      return new WarehouseSnapshot(dbWarehouse.id, dbWarehouse.businessUnitCode, dbWarehouse.location,
+              dbWarehouse.capacity, dbWarehouse.stock, dbWarehouse.createdAt, dbWarehouse.archivedAt);
+    }
+
+    Warehouse toWarehouse() {
+      var warehouse = new Warehouse();
+      warehouse.id = id;
+      warehouse.businessUnitCode = businessUnitCode;
+      warehouse.location = location;
+      warehouse.capacity = capacity;
+      warehouse.stock = stock;
+      warehouse.createdAt = createdAt;
+      warehouse.archivedAt = archivedAt;
+      return warehouse;
+    }
+  }
 }
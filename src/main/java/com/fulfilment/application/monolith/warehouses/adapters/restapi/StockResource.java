@@ -0,0 +1,188 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockLedgerRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockReservations;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.StockAvailabilityResponse;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.StockLevelResponse;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.StockMovementRequest;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.StockMovementResponse;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.StockReservationRequest;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.InsufficientStockException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The stock of a warehouse and the movements that make it up. Movements are appended to the ledger and never
+ * update the warehouse row themselves, so they can be posted concurrently for the same warehouse.
+ * Reservations for orders are taken from the in-memory counters of {@link StockReservations}.
+ */
+@ApplicationScoped
+@Path("/warehouses/{businessUnitCode}/stock")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class StockResource {
+  private static final String ACTIVE_WAREHOUSE_NOT_FOUND = "Active warehouse with business unit code %s not found";
+  private static final int DEFAULT_PAGE_SIZE = 100;
+
+  @Inject
+  StockLedgerRepository stockLedgerRepository;
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  StockReservations stockReservations;
+
+  @Inject
+  WarehouseValidationService validationService;
+
+  @GET
+  public StockLevelResponse getStock(@PathParam("businessUnitCode") String businessUnitCode) {
+    Integer stock = stockLedgerRepository.currentStock(businessUnitCode);
+    if (stock == null) {
+      throw notFound(businessUnitCode);
+    }
+
+    var response = new StockLevelResponse();
+    response.setBusinessUnitCode(businessUnitCode);
+    response.setStock(stock);
+    return response;
+  }
+
+  // one page ordered by id; pass the id of the last movement received as "after" to get the next page
+  @GET
+  @Path("/movements")
+  public List<StockMovementResponse> getMovements(
+          @PathParam("businessUnitCode") String businessUnitCode,
+          @QueryParam("after") Long after,
+          @QueryParam("limit") @Min(1) @Max(1000) Integer limit) {
+    return stockLedgerRepository.findPage(businessUnitCode, after, limit != null ? limit : DEFAULT_PAGE_SIZE)
+            .stream()
+            .map(StockResource::toResponse)
+            .toList();
+  }
+
+  /**
+   * Records the movements in one transaction, all of them or none.
+   */
+  @POST
+  @Path("/movements")
+  public Response recordMovements(
+          @PathParam("businessUnitCode") String businessUnitCode,
+          @NotEmpty @Size(max = 1000) List<@Valid StockMovementRequest> requests) {
+    if (warehouseRepository.findActiveByBusinessUnitCode(businessUnitCode) == null) {
+      throw notFound(businessUnitCode);
+    }
+
+    List<StockMovement> movements = new ArrayList<>(requests.size());
+    for (StockMovementRequest request : requests) {
+      validationService.validateStockMovement(request.getType(), request.getQuantity());
+
+      var movement = new StockMovement();
+      movement.businessUnitCode = businessUnitCode;
+      movement.type = request.getType();
+      movement.quantity = request.getType() == StockMovement.Type.OUTBOUND
+              ? -request.getQuantity()
+              : request.getQuantity();
+      movements.add(movement);
+    }
+
+    stockLedgerRepository.append(movements);
+    // the counters see the new stock right away rather than at the next flush
+    stockReservations.refresh(Set.of(businessUnitCode));
+    return Response.status(Response.Status.CREATED)
+            .entity(movements.stream().map(StockResource::toResponse).toList())
+            .build();
+  }
+
+  @GET
+  @Path("/reservations")
+  public StockAvailabilityResponse getAvailability(@PathParam("businessUnitCode") String businessUnitCode) {
+    return toResponse(found(businessUnitCode, stockReservations.stockLevel(businessUnitCode)));
+  }
+
+  /**
+   * Reserves stock for an order, or answers 409 when less than the quantity is available.
+   */
+  @POST
+  @Path("/reservations")
+  public Response reserve(
+          @PathParam("businessUnitCode") String businessUnitCode,
+          @Valid @NotNull StockReservationRequest request) {
+    try {
+      StockLevel level = stockReservations.reserve(businessUnitCode, request.getQuantity());
+      return Response.status(Response.Status.CREATED).entity(toResponse(found(businessUnitCode, level))).build();
+    } catch (InsufficientStockException e) {
+      throw new RequestRejectedException(e.getMessage(), Response.Status.CONFLICT);
+    }
+  }
+
+  /**
+   * Releases stock reserved for an order that was shipped or cancelled.
+   */
+  @POST
+  @Path("/reservations/release")
+  public StockAvailabilityResponse release(
+          @PathParam("businessUnitCode") String businessUnitCode,
+          @Valid @NotNull StockReservationRequest request) {
+    try {
+      return toResponse(found(businessUnitCode, stockReservations.release(businessUnitCode, request.getQuantity())));
+    } catch (InsufficientStockException e) {
+      throw new RequestRejectedException(e.getMessage(), Response.Status.CONFLICT);
+    }
+  }
+
+  private static StockLevel found(String businessUnitCode, StockLevel level) {
+    if (level == null) {
+      throw notFound(businessUnitCode);
+    }
+    return level;
+  }
+
+  private static RequestRejectedException notFound(String businessUnitCode) {
+    return new RequestRejectedException(
+            String.format(ACTIVE_WAREHOUSE_NOT_FOUND, businessUnitCode), Response.Status.NOT_FOUND);
+  }
+
+  private static StockMovementResponse toResponse(StockMovement movement) {
+    var response = new StockMovementResponse();
+    response.setId(movement.id);
+    response.setType(movement.type);
+    response.setQuantity(movement.quantity);
+    response.setCreatedAt(movement.createdAt);
+    return response;
+  }
+
+  private static StockAvailabilityResponse toResponse(StockLevel level) {
+    var response = new StockAvailabilityResponse();
+    response.setBusinessUnitCode(level.businessUnitCode());
+    response.setStock(level.stock());
+    response.setReserved(level.reserved());
+    response.setAvailable(level.available());
+    return response;
+  }
+}
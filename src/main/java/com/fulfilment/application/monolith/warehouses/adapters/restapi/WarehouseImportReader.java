@@ -0,0 +1,164 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of a warehouse import, as CSV with a header line naming the columns or as one JSON object per
+ * line. Both use the field names of the warehouse API. A row that cannot be read is returned with its error
+ * rather than failing the import. CSV values are plain, without quoting.
+ */
+class WarehouseImportReader {
+
+  static final String TEXT_CSV = "text/csv";
+  static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  private static final String BUSINESS_UNIT_CODE = "businessUnitCode";
+  private static final String LOCATION = "location";
+  private static final String CAPACITY = "capacity";
+  private static final String STOCK = "stock";
+
+  private final ObjectMapper objectMapper;
+  private final int maxRows;
+
+  WarehouseImportReader(ObjectMapper objectMapper, int maxRows) {
+    this.objectMapper = objectMapper;
+    this.maxRows = maxRows;
+  }
+
+  /**
+   * @throws IllegalArgumentException when the CSV header is missing a column or there are more than the maximum
+   *     number of rows
+   */
+  List<Row> readCsv(InputStream input) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    String header = reader.readLine();
+    if (header == null) {
+      return List.of();
+    }
+
+    Map<String, Integer> columns = new HashMap<>();
+    String[] names = header.split(",", -1);
+    for (int i = 0; i < names.length; i++) {
+      columns.put(names[i].trim(), i);
+    }
+    for (String column : List.of(BUSINESS_UNIT_CODE, LOCATION, CAPACITY, STOCK)) {
+      if (!columns.containsKey(column)) {
+        throw new IllegalArgumentException("CSV header is missing the column '" + column + "'");
+      }
+    }
+
+    List<Row> rows = new ArrayList<>();
+    int lineNumber = 1;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      String[] values = line.split(",", -1);
+      try {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = value(values, columns.get(BUSINESS_UNIT_CODE));
+        warehouse.location = value(values, columns.get(LOCATION));
+        warehouse.capacity = integer(CAPACITY, value(values, columns.get(CAPACITY)));
+        warehouse.stock = integer(STOCK, value(values, columns.get(STOCK)));
+        add(rows, new Row(lineNumber, warehouse, null));
+      } catch (NumberFormatException e) {
+        add(rows, new Row(lineNumber, partial(value(values, columns.get(BUSINESS_UNIT_CODE))), e.getMessage()));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @throws IllegalArgumentException when there are more than the maximum number of rows
+   */
+  List<Row> readNdjson(InputStream input) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    List<Row> rows = new ArrayList<>();
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      String businessUnitCode = null;
+      try {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+          add(rows, new Row(lineNumber, partial(null), "Expected a JSON object"));
+          continue;
+        }
+        businessUnitCode = text(node, BUSINESS_UNIT_CODE);
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = businessUnitCode;
+        warehouse.location = text(node, LOCATION);
+        warehouse.capacity = integer(CAPACITY, text(node, CAPACITY));
+        warehouse.stock = integer(STOCK, text(node, STOCK));
+        add(rows, new Row(lineNumber, warehouse, null));
+      } catch (NumberFormatException e) {
+        add(rows, new Row(lineNumber, partial(businessUnitCode), e.getMessage()));
+      } catch (JsonProcessingException e) {
+        add(rows, new Row(lineNumber, partial(null), "Invalid JSON: " + e.getOriginalMessage()));
+      }
+    }
+    return rows;
+  }
+
+  private void add(List<Row> rows, Row row) {
+    if (rows.size() == maxRows) {
+      throw new IllegalArgumentException("An import is limited to " + maxRows + " rows");
+    }
+    rows.add(row);
+  }
+
+  private static String value(String[] values, int column) {
+    if (column >= values.length) {
+      return null;
+    }
+    String value = values[column].trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  private static String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  private static Integer integer(String field, String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value);
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException("Invalid " + field + " '" + value + "', expected a whole number");
+    }
+  }
+
+  private static Warehouse partial(String businessUnitCode) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    return warehouse;
+  }
+
+  /**
+   * A row of the import, with the reason it could not be read or {@code null}.
+   */
+  record Row(int line, Warehouse warehouse, String error) {
+  }
+}
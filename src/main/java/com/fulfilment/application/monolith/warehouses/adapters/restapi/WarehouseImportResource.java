@@ -0,0 +1,115 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.dto.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ImportWarehousesUseCase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk creation of warehouses from a CSV or NDJSON file. The whole file is validated against the existing
+ * warehouses and location totals read once, the accepted rows are inserted in JDBC batches, and the response
+ * streams one result per row as NDJSON, in file order.
+ */
+@ApplicationScoped
+@Path("/warehouses/import")
+public class WarehouseImportResource {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WarehouseImportResource.class);
+
+  private static final int MAX_ROWS = 10_000;
+
+  @Inject
+  ImportWarehousesUseCase importWarehousesUseCase;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @POST
+  @Consumes(WarehouseImportReader.TEXT_CSV)
+  @Produces(WarehouseImportReader.APPLICATION_NDJSON)
+  public Response importCsv(InputStream input) throws IOException {
+    return importRows(() -> reader().readCsv(input));
+  }
+
+  @POST
+  @Consumes(WarehouseImportReader.APPLICATION_NDJSON)
+  @Produces(WarehouseImportReader.APPLICATION_NDJSON)
+  public Response importNdjson(InputStream input) throws IOException {
+    return importRows(() -> reader().readNdjson(input));
+  }
+
+  private Response importRows(RowSource source) throws IOException {
+    List<WarehouseImportReader.Row> rows;
+    try {
+      rows = source.read();
+    } catch (IllegalArgumentException e) {
+      throw new RequestRejectedException(e.getMessage(), Response.Status.BAD_REQUEST);
+    }
+
+    List<Warehouse> readable = new ArrayList<>(rows.size());
+    for (WarehouseImportReader.Row row : rows) {
+      if (row.error() == null) {
+        readable.add(row.warehouse());
+      }
+    }
+    List<String> rejections = importWarehousesUseCase.importWarehouses(readable);
+
+    List<WarehouseImportResult> results = new ArrayList<>(rows.size());
+    int created = 0;
+    int next = 0;
+    for (WarehouseImportReader.Row row : rows) {
+      String error = row.error() != null ? row.error() : rejections.get(next++);
+      var result = new WarehouseImportResult();
+      result.setLine(row.line());
+      result.setBusinessUnitCode(row.warehouse().businessUnitCode);
+      result.setStatus(error == null
+              ? Response.Status.CREATED.getStatusCode()
+              : Response.Status.BAD_REQUEST.getStatusCode());
+      result.setError(error);
+      results.add(result);
+      if (error == null) {
+        created++;
+      }
+    }
+    LOGGER.info("Warehouse import of {} rows created {} warehouses", rows.size(), created);
+
+    return Response.ok(stream(results)).build();
+  }
+
+  private StreamingOutput stream(List<WarehouseImportResult> results) {
+    return output -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+        generator.setRootValueSeparator(null);
+        for (WarehouseImportResult result : results) {
+          objectMapper.writeValue(generator, result);
+          generator.writeRaw('\n');
+        }
+      }
+    };
+  }
+
+  private WarehouseImportReader reader() {
+    return new WarehouseImportReader(objectMapper, MAX_ROWS);
+  }
+
+  @FunctionalInterface
+  private interface RowSource {
+    List<WarehouseImportReader.Row> read() throws IOException;
+  }
+}
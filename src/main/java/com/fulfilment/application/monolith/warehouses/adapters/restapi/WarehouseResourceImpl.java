@@ -1,8 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fulfilment.application.monolith.concurrency.JdbcBound;
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockLedgerRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
 import com.warehouse.api.WarehousesResource;
 import com.warehouse.api.beans.Warehouse;
@@ -10,7 +14,6 @@ import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @RequestScoped
+@JdbcBound
 public class WarehouseResourceImpl implements WarehousesResource {
   private static final String WAREHOUSE_NOT_FOUND = "Warehouse with business unit code %s not found";
   private static final String ACTIVE_WAREHOUSE_NOT_FOUND = "Active warehouse with business unit code %s not found";
@@ -27,6 +31,7 @@ public class WarehouseResourceImpl implements WarehousesResource {
 
   @Inject private WarehouseRepository warehouseRepository;
   @Inject private WarehouseValidationService validationService;
+  @Inject private StockLedgerRepository stockLedgerRepository;
 
   @Override
   public List<Warehouse> listAllWarehousesUnits() {
@@ -34,20 +39,20 @@ public class WarehouseResourceImpl implements WarehousesResource {
   }
 
   @Override
+  @Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
     try {
       // Validate business unit code uniqueness
       validationService.validateBusinessUnitCodeUniqueness(data.getBusinessUnitCode());
 
-      // Validate location
-      validationService.validateLocation(data.getLocation());
-
-      // Validate warehouse creation feasibility
-      validationService.validateWarehouseCreationFeasibility(data.getLocation());
+      // Validate location, resolved once for all the checks below
+      Location location = validationService.validateLocation(data.getLocation());
 
       // Validate capacity and stock
-      validationService.validateCapacityAndStock(
-              data.getCapacity(), data.getStock(), data.getLocation());
+      validationService.validateCapacityAndStock(data.getCapacity(), data.getStock(), location);
+
+      // Validate warehouse creation feasibility, locking the location's totals until the warehouse is created
+      validationService.validateWarehouseCreationFeasibility(location, data.getCapacity(), null);
 
       // Create warehouse entity
       var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
@@ -63,7 +68,7 @@ public class WarehouseResourceImpl implements WarehousesResource {
 
       return toWarehouseResponse(warehouse);
     } catch (WarehouseValidationException e) {
-      throw  new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+      throw new RequestRejectedException(e.getMessage(), Response.Status.BAD_REQUEST);
     }
   }
 
@@ -72,7 +77,7 @@ public class WarehouseResourceImpl implements WarehousesResource {
     var warehouse = warehouseRepository.findActiveByBusinessUnitCode(id);
 
     if (warehouse == null || warehouse.archivedAt != null) {
-      throw new WebApplicationException(
+      throw new RequestRejectedException(
               String.format(WAREHOUSE_NOT_FOUND, id),
               Response.Status.NOT_FOUND);
     }
@@ -83,36 +88,39 @@ public class WarehouseResourceImpl implements WarehousesResource {
   @Override
   @Transactional
   public void archiveAWarehouseUnitByID(String id) {
-    var warehouse = warehouseRepository.findByBusinessUnitCode(id);
+    var warehouse = warehouseRepository.lockActiveByBusinessUnitCode(id);
 
-    if (warehouse == null || warehouse.archivedAt != null) {
-      throw new WebApplicationException(
+    if (warehouse == null) {
+      throw new RequestRejectedException(
               String.format(WAREHOUSE_NOT_FOUND, id),
               Response.Status.NOT_FOUND);
     }
 
+    // the archived warehouse keeps its final stock
+    stockLedgerRepository.applyPending(warehouse);
     warehouse.archivedAt = LocalDateTime.now();
     warehouseRepository.update(warehouse);
     LOGGER.info("Warehouse {} archived successfully", warehouse);
   }
 
   @Override
+  @Transactional
   public Warehouse replaceTheCurrentActiveWarehouse(String businessUnitCode, @NotNull Warehouse data) {
     try {
-      // Find existing warehouse by business unit code
-      var existingWarehouse = warehouseRepository.findByBusinessUnitCode(businessUnitCode);
+      // Locks the active warehouse until commit, so a concurrent replace or archive of the unit waits
+      var existingWarehouse = warehouseRepository.lockActiveByBusinessUnitCode(businessUnitCode);
 
-      if (existingWarehouse == null || existingWarehouse.archivedAt != null) {
-        throw new WebApplicationException(
+      if (existingWarehouse == null) {
+        throw new RequestRejectedException(
                 String.format(ACTIVE_WAREHOUSE_NOT_FOUND, businessUnitCode),
                 Response.Status.NOT_FOUND);  // This will return 404
       }
 
-      // Validate location
-      validationService.validateLocation(data.getLocation());
+      // Bring the stock up to date with the recorded movements, the checks below compare against it
+      stockLedgerRepository.applyPending(existingWarehouse);
 
-      // Validate warehouse creation feasibility at new location
-      validationService.validateWarehouseCreationFeasibility(data.getLocation());
+      // Validate location, resolved once for all the checks below
+      Location location = validationService.validateLocation(data.getLocation());
 
       // Validate capacity can accommodate existing stock
       validationService.validateReplacementCapacity(data.getCapacity(), existingWarehouse.stock);
@@ -121,34 +129,28 @@ public class WarehouseResourceImpl implements WarehousesResource {
       validationService.validateStockMatching(data.getStock(), existingWarehouse.stock);
 
       // Validate capacity and stock for the new location
-      validationService.validateCapacityAndStock(
-              data.getCapacity(), data.getStock(), data.getLocation());
+      validationService.validateCapacityAndStock(data.getCapacity(), data.getStock(), location);
 
-      // Archive the existing warehouse
-      existingWarehouse.archivedAt = LocalDateTime.now();
-      warehouseRepository.update(existingWarehouse);
+      // Validate warehouse creation feasibility at new location, where the existing warehouse frees its share
+      validationService.validateWarehouseCreationFeasibility(location, data.getCapacity(), existingWarehouse);
 
-      // Create new warehouse
+      // Archive the existing warehouse and create the new one in a single statement
       var newWarehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
-      newWarehouse.businessUnitCode = businessUnitCode;
       newWarehouse.location = data.getLocation();
       newWarehouse.capacity = data.getCapacity();
       newWarehouse.stock = data.getStock();
-      newWarehouse.createdAt = LocalDateTime.now();
-      newWarehouse.archivedAt = null;
 
-      warehouseRepository.save(newWarehouse);
+      warehouseRepository.replace(existingWarehouse, newWarehouse);
       LOGGER.info("Warehouse replaced from {} to {}", existingWarehouse, newWarehouse);
 
       return toWarehouseResponse(newWarehouse);
 
     } catch (WarehouseValidationException | WarehouseNotFoundException e) {
-      LOGGER.error("Failed to replace warehouse", e);
-      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+      throw new RequestRejectedException(e.getMessage(), Response.Status.BAD_REQUEST);
     }
   }
 
-  private Warehouse toWarehouseResponse(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
+  Warehouse toWarehouseResponse(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
     var response = new Warehouse();
     response.setBusinessUnitCode(warehouse.businessUnitCode);
     response.setLocation(warehouse.location);
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StockAvailabilityResponse {
+
+  private String businessUnitCode;
+  private Integer stock;
+  private Integer reserved;
+  // available to promise: stock not yet reserved
+  private Integer available;
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StockLevelResponse {
+
+  private String businessUnitCode;
+  private Integer stock;
+}
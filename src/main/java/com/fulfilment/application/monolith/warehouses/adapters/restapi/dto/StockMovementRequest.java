@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StockMovementRequest {
+
+  @NotNull(message = "Stock movement type is required")
+  private StockMovement.Type type;
+
+  // units moved: positive for inbound and outbound, signed for adjustments
+  @NotNull(message = "Stock movement quantity is required")
+  private Integer quantity;
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class StockMovementResponse {
+
+  private Long id;
+  private StockMovement.Type type;
+  // change to the stock, negative for outbound movements
+  private Integer quantity;
+  private LocalDateTime createdAt;
+}
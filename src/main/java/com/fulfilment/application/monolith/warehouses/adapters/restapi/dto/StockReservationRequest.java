@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StockReservationRequest {
+
+  @NotNull(message = "Reservation quantity is required")
+  @Min(value = 1, message = "Reservation quantity must be positive")
+  private Integer quantity;
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class WarehouseImportResult {
+
+  // line of the row in the imported file, starting at 1
+  private int line;
+  private String businessUnitCode;
+  private int status;
+  private String error;
+}
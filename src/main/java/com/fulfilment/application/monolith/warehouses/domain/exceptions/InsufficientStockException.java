@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.warehouses.domain.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        // an expected outcome reported to the caller, not worth a stack trace
+        super(message, null, false, false);
+    }
+}
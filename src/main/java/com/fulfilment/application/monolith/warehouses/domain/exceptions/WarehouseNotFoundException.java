@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.exceptions;
 
 public class WarehouseNotFoundException extends RuntimeException {
     public WarehouseNotFoundException(String message) {
-        super(message);
+        // an expected outcome reported to the caller, not worth a stack trace
+        super(message, null, false, false);
     }
 }
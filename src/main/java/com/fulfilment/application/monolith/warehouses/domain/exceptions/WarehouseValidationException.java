@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.exceptions;
 
 public class WarehouseValidationException extends RuntimeException {
     public WarehouseValidationException(String message) {
-        super(message);
+        // an expected outcome reported to the caller, not worth a stack trace
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * What the active warehouses at a location add up to, to be checked against the limits of the {@link Location}.
+ */
+public record LocationCapacity(String location, int warehouseCount, int totalCapacity) {
+}
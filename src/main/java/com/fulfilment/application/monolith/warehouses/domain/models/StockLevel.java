@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * The stock of an active warehouse, including the movements not yet applied to it, and the part of it
+ * reserved for orders.
+ */
+public record StockLevel(String businessUnitCode, int stock, int reserved) {
+
+  public int available() {
+    return stock - reserved;
+  }
+}
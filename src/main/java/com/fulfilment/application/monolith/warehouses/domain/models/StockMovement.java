@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of a business unit's stock ledger. Entries are only ever added; the stock of the unit is its stock
+ * at creation plus the quantities of all its entries.
+ */
+@Getter
+@Setter
+public class StockMovement {
+
+  public enum Type {
+    INBOUND,
+    OUTBOUND,
+    // a correction after a count, in either direction
+    ADJUSTMENT
+  }
+
+  public Long id;
+
+  public String businessUnitCode;
+
+  public Type type;
+
+  // change to the stock: positive for inbound, negative for outbound, either sign for adjustments
+  public Integer quantity;
+
+  public LocalDateTime createdAt;
+}
@@ -1,92 +1,282 @@
 package com.fulfilment.application.monolith.warehouses.domain.services;
 
-import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentConstraintIndex;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationCapacityRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationCapacity;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 @ApplicationScoped
 public class WarehouseValidationService {
-    private static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
-    private static final int MAX_WAREHOUSES_PER_STORE = 3;
-    private static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
+    public static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
+    public static final int MAX_WAREHOUSES_PER_STORE = 3;
+    public static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
 
-    @Inject private WarehouseRepository warehouseRepository;
-    @Inject private LocationResolver locationResolver;
-    @Inject private StoreProductWarehouseRepository fulfillmentRepository;
+    @Inject WarehouseRepository warehouseRepository;
+    @Inject LocationCapacityRepository locationCapacityRepository;
+    @Inject LocationResolver locationResolver;
+    @Inject FulfillmentConstraintIndex constraintIndex;
+    @Inject MeterRegistry meterRegistry;
 
-    public void validateBusinessUnitCodeUniqueness(String businessUnitCode) {
-        if (warehouseRepository.existsByBusinessUnitCode(businessUnitCode)) {
+    private final Map<Rule, Timer> ruleTimers = new EnumMap<>(Rule.class);
+    private final Map<Rule, Counter> rejectionCounters = new EnumMap<>(Rule.class);
 
-            throw new WarehouseValidationException(
-                    "Warehouse with business unit code '" + businessUnitCode + "' already exists");
+    @PostConstruct
+    void registerMetrics() {
+        for (Rule rule : Rule.values()) {
+            ruleTimers.put(rule, Timer.builder("warehouse.validation.rule")
+                    .description("Time spent evaluating a validation rule")
+                    .tag("rule", rule.tag)
+                    .register(meterRegistry));
+            rejectionCounters.put(rule, Counter.builder("warehouse.validation.rejections")
+                    .description("Requests rejected by a validation rule")
+                    .tag("rule", rule.tag)
+                    .register(meterRegistry));
         }
     }
 
+    public void validateBusinessUnitCodeUniqueness(String businessUnitCode) {
+        ruleTimers.get(Rule.BUSINESS_UNIT_CODE_UNIQUENESS).record(() -> {
+            if (warehouseRepository.existsByBusinessUnitCode(businessUnitCode)) {
+
+                throw reject(Rule.BUSINESS_UNIT_CODE_UNIQUENESS,
+                        "Warehouse with business unit code '" + businessUnitCode + "' already exists");
+            }
+        });
+    }
+
     public Location validateLocation(String locationIdentifier) {
-        Location location = locationResolver.resolveByIdentifier(locationIdentifier);
-        if (location == null) {
-            throw new WarehouseValidationException(
-                    "Invalid location: '" + locationIdentifier + "' does not exist");
-        }
-        return location;
+        return ruleTimers.get(Rule.LOCATION).record(() -> {
+            Location location = locationResolver.resolveByIdentifier(locationIdentifier);
+            if (location == null) {
+                throw reject(Rule.LOCATION,
+                        "Invalid location: '" + locationIdentifier + "' does not exist");
+            }
+            return location;
+        });
     }
 
-    public void validateWarehouseCreationFeasibility(String locationIdentifier) {
-        Location location = validateLocation(locationIdentifier);
-        int existingWarehousesAtLocation = warehouseRepository.countByLocation(locationIdentifier);
+    public void validateWarehouseCreationFeasibility(String locationIdentifier, Integer capacity) {
+        validateWarehouseCreationFeasibility(validateLocation(locationIdentifier), capacity, null);
+    }
 
-        if (existingWarehousesAtLocation >= location.getMaxNumberOfWarehouses()) {
-            throw new WarehouseValidationException(
-                    "Cannot create warehouse at location '"
-                            + locationIdentifier
-                            + "'. Maximum number of warehouses ("
-                            + location.getMaxNumberOfWarehouses()
-                            + ") already reached");
-        }
+    /**
+     * Checks that a warehouse of the given capacity fits at the location, both in number of warehouses and in
+     * summed capacity. When it replaces a warehouse at the same location, the replaced one's slot and capacity
+     * are freed. The location totals stay locked until the transaction ends, so the caller should create the
+     * warehouse in the same transaction, and concurrent creates at the location are checked one after the other.
+     *
+     * @param location as resolved by {@link #validateLocation(String)}
+     * @param replaced the warehouse being replaced, or {@code null} for a new one
+     */
+    public void validateWarehouseCreationFeasibility(Location location, Integer capacity, Warehouse replaced) {
+        ruleTimers.get(Rule.WAREHOUSE_CREATION_FEASIBILITY).record(() -> {
+            String identification = location.getIdentification();
+            // the replaced warehouse's location is locked as well, its totals go down in the same transaction
+            LocationCapacity usage = locationCapacityRepository
+                    .lock(replaced != null ? List.of(identification, replaced.location) : List.of(identification))
+                    .get(identification);
+
+            int warehouses = usage.warehouseCount();
+            int totalCapacity = usage.totalCapacity() + capacity;
+            if (replaced != null && identification.equals(replaced.location)) {
+                warehouses--;
+                totalCapacity -= replaced.capacity;
+            }
+
+            if (warehouses >= location.getMaxNumberOfWarehouses()) {
+                throw reject(Rule.WAREHOUSE_CREATION_FEASIBILITY,
+                        "Cannot create warehouse at location '"
+                                + identification
+                                + "'. Maximum number of warehouses ("
+                                + location.getMaxNumberOfWarehouses()
+                                + ") already reached");
+            }
+
+            if (totalCapacity > location.getMaxCapacity()) {
+                throw reject(Rule.WAREHOUSE_CREATION_FEASIBILITY,
+                        "Cannot create warehouse at location '"
+                                + identification
+                                + "'. Total capacity of its warehouses ("
+                                + totalCapacity
+                                + ") would exceed the maximum capacity of the location ("
+                                + location.getMaxCapacity()
+                                + ")");
+            }
+        });
     }
 
     public void validateCapacityAndStock(Integer capacity, Integer stock, String locationIdentifier) {
-        Location location = validateLocation(locationIdentifier);
+        validateCapacityAndStock(capacity, stock, validateLocation(locationIdentifier));
+    }
 
-        if (capacity > location.getMaxCapacity()) {
-            throw new WarehouseValidationException(
-                    "Warehouse capacity ("
-                            + capacity
-                            + ") exceeds maximum capacity for location ("
-                            + location.getMaxCapacity()
-                            + ")");
-        }
+    public void validateCapacityAndStock(Integer capacity, Integer stock, Location location) {
+        ruleTimers.get(Rule.CAPACITY_AND_STOCK).record(() -> {
+            if (capacity > location.getMaxCapacity()) {
+                throw reject(Rule.CAPACITY_AND_STOCK,
+                        "Warehouse capacity ("
+                                + capacity
+                                + ") exceeds maximum capacity for location ("
+                                + location.getMaxCapacity()
+                                + ")");
+            }
 
-        if (stock > capacity) {
-            throw new WarehouseValidationException(
-                    "Stock (" + stock + ") cannot exceed warehouse capacity (" + capacity + ")");
-        }
+            if (stock > capacity) {
+                throw reject(Rule.CAPACITY_AND_STOCK,
+                        "Stock (" + stock + ") cannot exceed warehouse capacity (" + capacity + ")");
+            }
+        });
     }
 
     public void validateReplacementCapacity(Integer newCapacity, Integer existingStock) {
-        if (newCapacity < existingStock) {
-            throw new WarehouseValidationException(
-                    "New warehouse capacity ("
-                            + newCapacity
-                            + ") cannot accommodate existing stock ("
-                            + existingStock
-                            + ")");
-        }
+        ruleTimers.get(Rule.REPLACEMENT_CAPACITY).record(() -> {
+            if (newCapacity < existingStock) {
+                throw reject(Rule.REPLACEMENT_CAPACITY,
+                        "New warehouse capacity ("
+                                + newCapacity
+                                + ") cannot accommodate existing stock ("
+                                + existingStock
+                                + ")");
+            }
+        });
     }
 
     public void validateStockMatching(Integer newStock, Integer existingStock) {
-        if (!newStock.equals(existingStock)) {
-            throw new WarehouseValidationException(
-                    "New warehouse stock ("
-                            + newStock
-                            + ") must match existing warehouse stock ("
-                            + existingStock
-                            + ")");
+        ruleTimers.get(Rule.STOCK_MATCHING).record(() -> {
+            if (!newStock.equals(existingStock)) {
+                throw reject(Rule.STOCK_MATCHING,
+                        "New warehouse stock ("
+                                + newStock
+                                + ") must match existing warehouse stock ("
+                                + existingStock
+                                + ")");
+            }
+        });
+    }
+
+    /**
+     * Validates new warehouses as if they were created one after the other, so uniqueness and the location
+     * limits also account for the warehouses accepted earlier in the list. The checks of a single warehouse run
+     * in parallel; the rest is answered from one query for the existing business unit codes and the location
+     * totals, which stay locked until the transaction ends, so the caller should create the accepted
+     * warehouses in the same transaction.
+     *
+     * @return the rejection reason for each warehouse, in input order, or {@code null} when it is accepted
+     */
+    @Timed("warehouse.validation.batch")
+    public List<String> validateWarehouseImport(List<Warehouse> warehouses) {
+        List<Location> locations = new ArrayList<>(Collections.nCopies(warehouses.size(), null));
+        List<String> rejections = new ArrayList<>(Collections.nCopies(warehouses.size(), null));
+        IntStream.range(0, warehouses.size()).parallel().forEach(i -> {
+            Warehouse warehouse = warehouses.get(i);
+            try {
+                checkRequiredFields(warehouse);
+                Location location = validateLocation(warehouse.location);
+                validateCapacityAndStock(warehouse.capacity, warehouse.stock, location);
+                locations.set(i, location);
+            } catch (WarehouseValidationException e) {
+                rejections.set(i, e.getMessage());
+            }
+        });
+
+        Set<String> codes = new HashSet<>();
+        Set<String> locationIdentifiers = new HashSet<>();
+        for (int i = 0; i < warehouses.size(); i++) {
+            if (rejections.get(i) == null) {
+                codes.add(warehouses.get(i).businessUnitCode);
+                locationIdentifiers.add(locations.get(i).getIdentification());
+            }
+        }
+        Set<String> existingCodes = warehouseRepository.findActiveBusinessUnitCodes(codes);
+        Map<String, LocationCapacity> usage = new HashMap<>(locationCapacityRepository.lock(locationIdentifiers));
+
+        Set<String> acceptedCodes = new HashSet<>();
+        for (int i = 0; i < warehouses.size(); i++) {
+            if (rejections.get(i) != null) {
+                continue;
+            }
+            Warehouse warehouse = warehouses.get(i);
+            Location location = locations.get(i);
+            try {
+                if (existingCodes.contains(warehouse.businessUnitCode)
+                        || acceptedCodes.contains(warehouse.businessUnitCode)) {
+                    throw reject(Rule.BUSINESS_UNIT_CODE_UNIQUENESS,
+                            "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+                }
+
+                LocationCapacity current = usage.get(location.getIdentification());
+                if (current.warehouseCount() >= location.getMaxNumberOfWarehouses()) {
+                    throw reject(Rule.WAREHOUSE_CREATION_FEASIBILITY,
+                            "Cannot create warehouse at location '"
+                                    + location.getIdentification()
+                                    + "'. Maximum number of warehouses ("
+                                    + location.getMaxNumberOfWarehouses()
+                                    + ") already reached");
+                }
+                int totalCapacity = current.totalCapacity() + warehouse.capacity;
+                if (totalCapacity > location.getMaxCapacity()) {
+                    throw reject(Rule.WAREHOUSE_CREATION_FEASIBILITY,
+                            "Cannot create warehouse at location '"
+                                    + location.getIdentification()
+                                    + "'. Total capacity of its warehouses ("
+                                    + totalCapacity
+                                    + ") would exceed the maximum capacity of the location ("
+                                    + location.getMaxCapacity()
+                                    + ")");
+                }
+
+                acceptedCodes.add(warehouse.businessUnitCode);
+                usage.put(location.getIdentification(), new LocationCapacity(
+                        location.getIdentification(), current.warehouseCount() + 1, totalCapacity));
+            } catch (WarehouseValidationException e) {
+                rejections.set(i, e.getMessage());
+            }
         }
+
+        return rejections;
+    }
+
+    /**
+     * Checks the shape of a stock movement. The ledger records what happened, so a movement is not checked
+     * against the warehouse's stock or capacity.
+     */
+    public void validateStockMovement(StockMovement.Type type, Integer quantity) {
+        ruleTimers.get(Rule.STOCK_MOVEMENT).record(() -> {
+            if (type == null) {
+                throw reject(Rule.STOCK_MOVEMENT, "Stock movement type is required");
+            }
+            if (quantity == null) {
+                throw reject(Rule.STOCK_MOVEMENT, "Stock movement quantity is required");
+            }
+            if (type == StockMovement.Type.ADJUSTMENT ? quantity == 0 : quantity <= 0) {
+                throw reject(Rule.STOCK_MOVEMENT, type == StockMovement.Type.ADJUSTMENT
+                        ? "Stock adjustment quantity cannot be zero"
+                        : "Stock movement quantity (" + quantity + ") must be positive");
+            }
+        });
     }
 
     public void validateFulfillmentAssociation(Long storeId, Long productId, String warehouseBusinessUnitCode) {
@@ -97,58 +287,244 @@ public class WarehouseValidationService {
         validateProductsPerWarehouse(warehouseBusinessUnitCode, productId);
     }
 
+    /**
+     * Same rules as {@link #validateFulfillmentAssociation(Long, Long, String)}, for callers that looked up
+     * whether the warehouse is active themselves. Everything else is answered from the constraint index, so
+     * this does not block once the index is loaded.
+     */
+    public void validateFulfillmentAssociation(
+            Long storeId, Long productId, String warehouseBusinessUnitCode, boolean warehouseActive) {
+        ruleTimers.get(Rule.WAREHOUSE_EXISTS_AND_ACTIVE).record(() ->
+                checkWarehouseExistsAndActive(warehouseBusinessUnitCode, warehouseActive));
+        validateAssociationDoesNotExist(storeId, productId, warehouseBusinessUnitCode);
+        validateWarehousesPerProductPerStore(storeId, productId);
+        validateWarehousesPerStore(storeId, warehouseBusinessUnitCode);
+        validateProductsPerWarehouse(warehouseBusinessUnitCode, productId);
+    }
+
+    /**
+     * Validates a batch of new associations as if they were created one after the other, so the limits also
+     * account for the associations accepted earlier in the same batch. The warehouses are checked with a
+     * single query and the association limits are answered from the constraint index.
+     *
+     * @return the rejection reason for each association, in input order, or {@code null} when it is accepted
+     */
+    @Timed("warehouse.validation.batch")
+    public List<String> validateFulfillmentAssociations(List<StoreProductWarehouse> associations) {
+        Set<String> activeWarehouses = warehouseRepository.findActiveBusinessUnitCodes(
+                associations.stream()
+                        .map(StoreProductWarehouse::getWarehouseBusinessUnitCode)
+                        .collect(Collectors.toSet()));
+
+        PendingAssociations pending = new PendingAssociations();
+        List<String> rejections = new ArrayList<>(associations.size());
+
+        for (StoreProductWarehouse association : associations) {
+            Long storeId = association.getStoreId();
+            Long productId = association.getProductId();
+            String warehouseCode = association.getWarehouseBusinessUnitCode();
+
+            try {
+                checkWarehouseExistsAndActive(warehouseCode, activeWarehouses.contains(warehouseCode));
+                checkAssociationDoesNotExist(storeId, productId, warehouseCode,
+                        constraintIndex.exists(storeId, productId, warehouseCode)
+                                || pending.exists(storeId, productId, warehouseCode));
+                checkWarehousesPerProductPerStore(storeId, productId,
+                        constraintIndex.countByStoreAndProduct(storeId, productId)
+                                + pending.countByStoreAndProduct(storeId, productId));
+                checkWarehousesPerStore(storeId,
+                        constraintIndex.countDistinctWarehousesByStore(storeId)
+                                + pending.countNewWarehousesByStore(storeId),
+                        constraintIndex.isWarehouseAssociatedWithStore(storeId, warehouseCode)
+                                || pending.isNewWarehouseForStore(storeId, warehouseCode));
+                checkProductsPerWarehouse(warehouseCode,
+                        constraintIndex.countProductsByWarehouse(warehouseCode)
+                                + pending.countNewProductsByWarehouse(warehouseCode),
+                        constraintIndex.isProductInWarehouse(warehouseCode, productId)
+                                || pending.isNewProductInWarehouse(warehouseCode, productId));
+            } catch (WarehouseValidationException e) {
+                rejections.add(e.getMessage());
+                continue;
+            }
+
+            pending.add(storeId, productId, warehouseCode,
+                    !constraintIndex.isWarehouseAssociatedWithStore(storeId, warehouseCode),
+                    !constraintIndex.isProductInWarehouse(warehouseCode, productId));
+            rejections.add(null);
+        }
+
+        return rejections;
+    }
+
     private void validateWarehouseExistsAndActive(String warehouseBusinessUnitCode) {
-        var warehouse = warehouseRepository.findActiveByBusinessUnitCode(warehouseBusinessUnitCode);
-        if (warehouse == null || warehouse.archivedAt != null) {
-            throw new WarehouseValidationException(
+        ruleTimers.get(Rule.WAREHOUSE_EXISTS_AND_ACTIVE).record(() -> {
+            var warehouse = warehouseRepository.findActiveByBusinessUnitCode(warehouseBusinessUnitCode);
+            checkWarehouseExistsAndActive(warehouseBusinessUnitCode, warehouse != null && warehouse.archivedAt == null);
+        });
+    }
+
+    private void validateAssociationDoesNotExist(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+        ruleTimers.get(Rule.ASSOCIATION_DOES_NOT_EXIST).record(() ->
+                checkAssociationDoesNotExist(storeId, productId, warehouseBusinessUnitCode,
+                        constraintIndex.exists(storeId, productId, warehouseBusinessUnitCode)));
+    }
+
+    private void validateWarehousesPerProductPerStore(Long storeId, Long productId) {
+        ruleTimers.get(Rule.WAREHOUSES_PER_PRODUCT_PER_STORE).record(() ->
+                checkWarehousesPerProductPerStore(storeId, productId,
+                        constraintIndex.countByStoreAndProduct(storeId, productId)));
+    }
+
+    private void validateWarehousesPerStore(Long storeId, String warehouseBusinessUnitCode) {
+        ruleTimers.get(Rule.WAREHOUSES_PER_STORE).record(() ->
+                checkWarehousesPerStore(storeId,
+                        constraintIndex.countDistinctWarehousesByStore(storeId),
+                        constraintIndex.isWarehouseAssociatedWithStore(storeId, warehouseBusinessUnitCode)));
+    }
+
+    private void validateProductsPerWarehouse(String warehouseBusinessUnitCode, Long productId) {
+        ruleTimers.get(Rule.PRODUCTS_PER_WAREHOUSE).record(() ->
+                checkProductsPerWarehouse(warehouseBusinessUnitCode,
+                        constraintIndex.countProductsByWarehouse(warehouseBusinessUnitCode),
+                        constraintIndex.isProductInWarehouse(warehouseBusinessUnitCode, productId)));
+    }
+
+    private void checkWarehouseExistsAndActive(String warehouseBusinessUnitCode, boolean active) {
+        if (!active) {
+            throw reject(Rule.WAREHOUSE_EXISTS_AND_ACTIVE,
                     "Warehouse with business unit code '" + warehouseBusinessUnitCode + "' does not exist or is archived");
         }
     }
 
-    private void validateAssociationDoesNotExist(Long storeId, Long productId, String warehouseBusinessUnitCode) {
-        if (fulfillmentRepository.exists(storeId, productId, warehouseBusinessUnitCode)) {
-            throw new WarehouseValidationException(
+    private void checkAssociationDoesNotExist(
+            Long storeId, Long productId, String warehouseBusinessUnitCode, boolean exists) {
+        if (exists) {
+            throw reject(Rule.ASSOCIATION_DOES_NOT_EXIST,
                     "Association already exists for Store " + storeId + ", Product " + productId +
                             ", and Warehouse " + warehouseBusinessUnitCode);
         }
     }
 
-    private void validateWarehousesPerProductPerStore(Long storeId, Long productId) {
+    private void checkWarehousesPerProductPerStore(Long storeId, Long productId, long warehousesForProductInStore) {
         // Constraint 1: Each Product can be fulfilled by a maximum of 2 different Warehouses per Store
-        long warehousesForProductInStore = fulfillmentRepository.countByStoreAndProduct(storeId, productId);
         if (warehousesForProductInStore >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
-            throw new WarehouseValidationException(
+            throw reject(Rule.WAREHOUSES_PER_PRODUCT_PER_STORE,
                     "Product " + productId + " in Store " + storeId + " already has the maximum of "
                             + MAX_WAREHOUSES_PER_PRODUCT_PER_STORE + " warehouses");
         }
     }
 
-    private void validateWarehousesPerStore(Long storeId, String warehouseBusinessUnitCode) {
+    private void checkWarehousesPerStore(
+            Long storeId, long distinctWarehousesForStore, boolean warehouseAlreadyAssociatedWithStore) {
         // Constraint 2: Each Store can be fulfilled by a maximum of 3 different Warehouses
-        long distinctWarehousesForStore = fulfillmentRepository.countDistinctWarehousesByStore(storeId);
-        boolean warehouseAlreadyAssociatedWithStore = fulfillmentRepository
-                .findByStore(storeId)
-                .stream()
-                .anyMatch(spw -> spw.getWarehouseBusinessUnitCode().equals(warehouseBusinessUnitCode));
-
         if (!warehouseAlreadyAssociatedWithStore && distinctWarehousesForStore >= MAX_WAREHOUSES_PER_STORE) {
-            throw new WarehouseValidationException(
+            throw reject(Rule.WAREHOUSES_PER_STORE,
                     "Store " + storeId + " already has the maximum of " + MAX_WAREHOUSES_PER_STORE + " different warehouses");
         }
     }
 
-    private void validateProductsPerWarehouse(String warehouseBusinessUnitCode, Long productId) {
+    private void checkProductsPerWarehouse(
+            String warehouseBusinessUnitCode, long productsInWarehouse, boolean productAlreadyInWarehouse) {
         // Constraint 3: Each Warehouse can store maximally 5 types of Products
-        long productsInWarehouse = fulfillmentRepository.countProductsByWarehouse(warehouseBusinessUnitCode);
-        boolean productAlreadyInWarehouse = fulfillmentRepository
-                .findByWarehouse(warehouseBusinessUnitCode)
-                .stream()
-                .anyMatch(spw -> spw.getProductId().equals(productId));
-
         if (!productAlreadyInWarehouse && productsInWarehouse >= MAX_PRODUCTS_PER_WAREHOUSE) {
-            throw new WarehouseValidationException(
+            throw reject(Rule.PRODUCTS_PER_WAREHOUSE,
                     "Warehouse " + warehouseBusinessUnitCode + " already stores the maximum of "
                             + MAX_PRODUCTS_PER_WAREHOUSE + " different products");
         }
     }
+
+    private void checkRequiredFields(Warehouse warehouse) {
+        if (warehouse.businessUnitCode == null || warehouse.businessUnitCode.isBlank()) {
+            throw reject(Rule.REQUIRED_FIELDS, "Business unit code is required");
+        }
+        if (warehouse.capacity == null || warehouse.capacity < 0) {
+            throw reject(Rule.REQUIRED_FIELDS, "Capacity is required and cannot be negative");
+        }
+        if (warehouse.stock == null || warehouse.stock < 0) {
+            throw reject(Rule.REQUIRED_FIELDS, "Stock is required and cannot be negative");
+        }
+    }
+
+    private WarehouseValidationException reject(Rule rule, String message) {
+        rejectionCounters.get(rule).increment();
+        return new WarehouseValidationException(message);
+    }
+
+    // tag values of the per-rule metrics
+    private enum Rule {
+        REQUIRED_FIELDS("requiredFields"),
+        BUSINESS_UNIT_CODE_UNIQUENESS("businessUnitCodeUniqueness"),
+        LOCATION("location"),
+        WAREHOUSE_CREATION_FEASIBILITY("warehouseCreationFeasibility"),
+        CAPACITY_AND_STOCK("capacityAndStock"),
+        REPLACEMENT_CAPACITY("replacementCapacity"),
+        STOCK_MATCHING("stockMatching"),
+        STOCK_MOVEMENT("stockMovement"),
+        WAREHOUSE_EXISTS_AND_ACTIVE("warehouseExistsAndActive"),
+        ASSOCIATION_DOES_NOT_EXIST("associationDoesNotExist"),
+        WAREHOUSES_PER_PRODUCT_PER_STORE("warehousesPerProductPerStore"),
+        WAREHOUSES_PER_STORE("warehousesPerStore"),
+        PRODUCTS_PER_WAREHOUSE("productsPerWarehouse");
+
+        private final String tag;
+
+        Rule(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Associations accepted earlier in a batch that are not yet in the constraint index. Store warehouses and
+     * warehouse products are only tracked here when the index does not already know them.
+     */
+    private static class PendingAssociations {
+        private final Map<Long, Map<Long, Set<String>>> warehousesByStoreAndProduct = new HashMap<>();
+        private final Map<Long, Set<String>> newWarehousesByStore = new HashMap<>();
+        private final Map<String, Set<Long>> newProductsByWarehouse = new HashMap<>();
+
+        boolean exists(Long storeId, Long productId, String warehouseBusinessUnitCode) {
+            Set<String> warehouses = warehousesFor(storeId, productId);
+            return warehouses != null && warehouses.contains(warehouseBusinessUnitCode);
+        }
+
+        long countByStoreAndProduct(Long storeId, Long productId) {
+            Set<String> warehouses = warehousesFor(storeId, productId);
+            return warehouses != null ? warehouses.size() : 0;
+        }
+
+        long countNewWarehousesByStore(Long storeId) {
+            return newWarehousesByStore.getOrDefault(storeId, Set.of()).size();
+        }
+
+        boolean isNewWarehouseForStore(Long storeId, String warehouseBusinessUnitCode) {
+            return newWarehousesByStore.getOrDefault(storeId, Set.of()).contains(warehouseBusinessUnitCode);
+        }
+
+        long countNewProductsByWarehouse(String warehouseBusinessUnitCode) {
+            return newProductsByWarehouse.getOrDefault(warehouseBusinessUnitCode, Set.of()).size();
+        }
+
+        boolean isNewProductInWarehouse(String warehouseBusinessUnitCode, Long productId) {
+            return newProductsByWarehouse.getOrDefault(warehouseBusinessUnitCode, Set.of()).contains(productId);
+        }
+
+        void add(Long storeId, Long productId, String warehouseBusinessUnitCode,
+                 boolean newWarehouseForStore, boolean newProductInWarehouse) {
+            warehousesByStoreAndProduct
+                    .computeIfAbsent(storeId, id -> new HashMap<>())
+                    .computeIfAbsent(productId, id -> new HashSet<>())
+                    .add(warehouseBusinessUnitCode);
+            if (newWarehouseForStore) {
+                newWarehousesByStore.computeIfAbsent(storeId, id -> new HashSet<>()).add(warehouseBusinessUnitCode);
+            }
+            if (newProductInWarehouse) {
+                newProductsByWarehouse.computeIfAbsent(warehouseBusinessUnitCode, code -> new HashSet<>()).add(productId);
+            }
+        }
+
+        private Set<String> warehousesFor(Long storeId, Long productId) {
+            Map<Long, Set<String>> products = warehousesByStoreAndProduct.get(storeId);
+            return products != null ? products.get(productId) : null;
+        }
+    }
 }
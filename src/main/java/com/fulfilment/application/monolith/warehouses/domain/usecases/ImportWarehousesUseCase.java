@@ -0,0 +1,48 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@ApplicationScoped
+public class ImportWarehousesUseCase {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  WarehouseValidationService validationService;
+
+  /**
+   * Creates every warehouse that passes validation, in one transaction that also holds the locks on the
+   * location totals taken by the validation, and leaves out the others.
+   *
+   * @return the rejection reason for each warehouse, in input order, or {@code null} when it was created
+   */
+  @Transactional
+  public List<String> importWarehouses(List<Warehouse> warehouses) {
+    List<String> rejections = validationService.validateWarehouseImport(warehouses);
+
+    LocalDateTime now = LocalDateTime.now();
+    List<Warehouse> accepted = new ArrayList<>(warehouses.size());
+    for (int i = 0; i < warehouses.size(); i++) {
+      if (rejections.get(i) == null) {
+        Warehouse warehouse = warehouses.get(i);
+        warehouse.createdAt = now;
+        warehouse.archived = false;
+        warehouse.archivedAt = null;
+        accepted.add(warehouse);
+      }
+    }
+    warehouseRepository.createAll(accepted);
+
+    return rejections;
+  }
+}
@@ -0,0 +1,18 @@
+-- Demo data, applied after the schema migrations and again whenever this file changes. Rows that are
+-- already there are left alone.
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (1, 'TONSTAD', 10) ON CONFLICT DO NOTHING;
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (2, 'KALLAX', 5) ON CONFLICT DO NOTHING;
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (3, 'BESTÅ', 3) ON CONFLICT DO NOTHING;
+SELECT setval('store_seq', 4, false) WHERE (SELECT last_value FROM store_seq) < 4;
+
+INSERT INTO product(id, name, stock) VALUES (1, 'TONSTAD', 10) ON CONFLICT DO NOTHING;
+INSERT INTO product(id, name, stock) VALUES (2, 'KALLAX', 5) ON CONFLICT DO NOTHING;
+INSERT INTO product(id, name, stock) VALUES (3, 'BESTÅ', 3) ON CONFLICT DO NOTHING;
+SELECT setval('product_seq', 4, false) WHERE (SELECT last_value FROM product_seq) < 4;
+
+INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) 
+VALUES ('1', 'MWH.001', 'ZWOLLE-001', 100, 10, '2024-07-01', null) ON CONFLICT DO NOTHING;
+INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
+VALUES ('2', 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null) ON CONFLICT DO NOTHING;
+INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
+VALUES ('3', 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null) ON CONFLICT DO NOTHING;
@@ -0,0 +1,54 @@
+-- The schema as Hibernate generated it from the original entities, before migrations were introduced.
+-- Databases created that way are baselined at this version, so only the migrations after it run against them.
+
+create sequence Product_SEQ start with 1 increment by 50;
+
+create sequence store_product_warehouse_SEQ start with 1 increment by 50;
+
+create sequence Store_SEQ start with 1 increment by 50;
+
+create table Product (
+    price numeric(10,2),
+    stock integer,
+    id bigint not null,
+    name varchar(40) unique,
+    description varchar(255),
+    primary key (id)
+);
+
+create table Store (
+    quantityProductsInStock integer not null,
+    id bigint not null,
+    name varchar(40) unique,
+    primary key (id)
+);
+
+create table store_product_warehouse (
+    created_at timestamp(6),
+    id bigint not null,
+    product_id bigint,
+    store_id bigint,
+    warehouse_business_unit_code varchar(50),
+    primary key (id),
+    constraint uk_store_product_warehouse unique (store_id, product_id, warehouse_business_unit_code)
+);
+
+create table warehouse (
+    capacity integer,
+    stock integer,
+    archivedAt timestamp(6),
+    createdAt timestamp(6),
+    businessUnitCode varchar(255),
+    id varchar(255) not null,
+    location varchar(255),
+    primary key (id)
+);
+
+create index idx_store_product
+    on store_product_warehouse (store_id, product_id);
+
+create index idx_store_warehouse
+    on store_product_warehouse (store_id, warehouse_business_unit_code);
+
+create index idx_warehouse_product
+    on store_product_warehouse (warehouse_business_unit_code, product_id);
@@ -0,0 +1,44 @@
+-- The tables and columns added while the schema was still generated by Hibernate: the stock ledger, the store
+-- outbox, the per-location capacity totals (rebuilt from the warehouses at startup) and the reserved stock.
+
+create sequence stock_movement_seq start with 1 increment by 50;
+
+create sequence store_outbox_SEQ start with 1 increment by 50;
+
+create table location_capacity (
+    totalCapacity integer not null,
+    warehouseCount integer not null,
+    location varchar(255) not null,
+    primary key (location)
+);
+
+create table stock_movement (
+    applied boolean not null,
+    quantity integer not null,
+    createdAt timestamp(6) not null,
+    id bigint not null,
+    type varchar(16) not null check (type in ('INBOUND','OUTBOUND','ADJUSTMENT')),
+    businessUnitCode varchar(255) not null,
+    primary key (id)
+);
+
+create table store_outbox (
+    attempts integer not null,
+    available_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    store_id bigint not null,
+    event_type varchar(16) not null check (event_type in ('CREATED','UPDATED')),
+    primary key (id)
+);
+
+create index idx_stock_movement_history
+    on stock_movement (businessUnitCode, id);
+
+create index idx_stock_movement_pending
+    on stock_movement (applied, businessUnitCode);
+
+create index idx_store_outbox_available
+    on store_outbox (available_at, id);
+
+alter table warehouse add column reserved integer default 0 not null;
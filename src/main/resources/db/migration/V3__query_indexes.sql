@@ -0,0 +1,30 @@
+-- Indexes shaped after the queries the repositories run on every request.
+
+-- At most one active warehouse per business unit code. The active lookups and existence checks filter on
+-- exactly this predicate, so they probe this index and the existence checks do not visit the table.
+create unique index uk_warehouse_active_business_unit_code
+    on warehouse (businessUnitCode)
+    where archivedAt is null;
+
+-- Rebuilding location_capacity sums the capacity of the active warehouses per location from the index alone.
+-- Stock and reserved stay out of the index, so their frequent updates remain heap-only.
+create index idx_warehouse_active_location
+    on warehouse (location) include (capacity)
+    where archivedAt is null;
+
+-- The pending movements are the few added since the last snapshot. Only they are indexed, with the quantity,
+-- so adding them up for a stock read does not visit the table.
+drop index idx_stock_movement_pending;
+create index idx_stock_movement_pending
+    on stock_movement (businessUnitCode) include (quantity)
+    where applied = false;
+
+-- The unique constraint's index, led by store_id, already answers the per-store counts and loads, which
+-- leaves idx_store_product with nothing to do but slow down writes.
+drop index idx_store_product;
+
+-- Led by the warehouse and carrying all three columns, so the per-warehouse product counts and the
+-- constraint index loads by warehouse are index-only.
+drop index idx_warehouse_product;
+create index idx_warehouse_product
+    on store_product_warehouse (warehouse_business_unit_code, product_id, store_id);
@@ -0,0 +1,42 @@
+-- Denormalized counts behind the fulfillment limits, maintained with the associations, so a limit check reads
+-- one row by primary key instead of aggregating store_product_warehouse.
+
+-- warehouses per store and product
+create table store_product_warehouse_count (
+    store_id bigint not null,
+    product_id bigint not null,
+    warehouses integer not null,
+    primary key (store_id, product_id)
+);
+
+-- distinct warehouses per store
+create table store_warehouse_count (
+    store_id bigint not null,
+    warehouses integer not null,
+    primary key (store_id)
+);
+
+-- distinct products per warehouse
+create table warehouse_product_count (
+    warehouse_business_unit_code varchar(50) not null,
+    products integer not null,
+    primary key (warehouse_business_unit_code)
+);
+
+insert into store_product_warehouse_count (store_id, product_id, warehouses)
+select store_id, product_id, count(*)
+from store_product_warehouse
+where store_id is not null and product_id is not null
+group by store_id, product_id;
+
+insert into store_warehouse_count (store_id, warehouses)
+select store_id, count(distinct warehouse_business_unit_code)
+from store_product_warehouse
+where store_id is not null
+group by store_id;
+
+insert into warehouse_product_count (warehouse_business_unit_code, products)
+select warehouse_business_unit_code, count(distinct product_id)
+from store_product_warehouse
+where warehouse_business_unit_code is not null
+group by warehouse_business_unit_code;
@@ -0,0 +1,4 @@
+-- The relay claims the outbox per store, checking for an older row of the store that is still waiting, and
+-- reschedules all of a store's rows after a failed send. Both look the rows up by store in id order.
+create index idx_store_outbox_store
+    on store_outbox (store_id, id);
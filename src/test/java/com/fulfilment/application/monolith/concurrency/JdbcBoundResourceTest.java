@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+
+@QuarkusTest
+@TestProfile(JdbcBoundResourceTest.NoSlotsProfile.class)
+public class JdbcBoundResourceTest {
+
+  public static class NoSlotsProfile implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+              "blocking-requests.max-concurrent", "0",
+              "blocking-requests.max-queued", "0");
+    }
+  }
+
+  @Test
+  void blockingResourcesAreRejectedWithoutASlot() {
+    for (String path : new String[] {"/store", "/product", "/warehouses", "/fulfillment"}) {
+      given()
+              .when().get(path)
+              .then()
+              .statusCode(503)
+              .body(containsString("Too many concurrent requests"));
+    }
+  }
+}
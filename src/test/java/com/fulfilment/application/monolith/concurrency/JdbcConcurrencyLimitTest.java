@@ -0,0 +1,93 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import com.fulfilment.application.monolith.errors.RequestRejectedException;
+import jakarta.interceptor.InvocationContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcConcurrencyLimitTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void shutDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void rejectsCallsBeyondTheQueueRightAway() throws Exception {
+    JdbcConcurrencyLimit limit = limit(1, 0, Duration.ofSeconds(30));
+    CountDownLatch running = new CountDownLatch(1);
+    Future<Object> first = executor.submit(() -> limit.limit(blocking(running)));
+    assertEquals(true, running.await(5, TimeUnit.SECONDS));
+
+    RequestRejectedException rejected = assertThrows(RequestRejectedException.class, () -> limit.limit(returning("b")));
+    assertEquals(503, rejected.getResponse().getStatus());
+
+    release.countDown();
+    assertEquals("done", first.get(5, TimeUnit.SECONDS));
+    assertEquals("c", limit.limit(returning("c")));
+  }
+
+  @Test
+  void rejectsQueuedCallsOnceTheirWaitIsUp() throws Exception {
+    JdbcConcurrencyLimit limit = limit(1, 1, Duration.ofMillis(50));
+    CountDownLatch running = new CountDownLatch(1);
+    executor.submit(() -> limit.limit(blocking(running)));
+    assertEquals(true, running.await(5, TimeUnit.SECONDS));
+
+    assertThrows(RequestRejectedException.class, () -> limit.limit(returning("b")));
+  }
+
+  @Test
+  void runsQueuedCallsWhenASlotFrees() throws Exception {
+    JdbcConcurrencyLimit limit = limit(1, 1, Duration.ofSeconds(30));
+    CountDownLatch running = new CountDownLatch(1);
+    executor.submit(() -> limit.limit(blocking(running)));
+    assertEquals(true, running.await(5, TimeUnit.SECONDS));
+
+    Future<Object> queued = executor.submit(() -> limit.limit(returning("b")));
+    release.countDown();
+
+    assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  private static JdbcConcurrencyLimit limit(int maxConcurrent, int maxQueued, Duration maxWait) {
+    JdbcConcurrencyLimit limit = new JdbcConcurrencyLimit();
+    limit.maxConcurrent = maxConcurrent;
+    limit.maxQueued = maxQueued;
+    limit.maxWait = maxWait;
+    limit.createPermits();
+    return limit;
+  }
+
+  private InvocationContext blocking(CountDownLatch running) throws Exception {
+    InvocationContext context = mock(InvocationContext.class);
+    when(context.proceed()).thenAnswer(invocation -> {
+      running.countDown();
+      release.await();
+      return "done";
+    });
+    return context;
+  }
+
+  private static InvocationContext returning(Object result) throws Exception {
+    InvocationContext context = mock(InvocationContext.class);
+    when(context.proceed()).thenReturn(result);
+    return context;
+  }
+}
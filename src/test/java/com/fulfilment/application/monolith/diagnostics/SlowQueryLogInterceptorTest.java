@@ -0,0 +1,99 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(SlowQueryLogInterceptorTest.EverythingSlowProfile.class)
+public class SlowQueryLogInterceptorTest {
+
+  public static class EverythingSlowProfile implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of("repository.slow-query.threshold", "0ms");
+    }
+  }
+
+  private final Logger logger = Logger.getLogger(SlowQueryLogInterceptor.class.getName());
+  private final List<LogRecord> records = new CopyOnWriteArrayList<>();
+  private final Handler handler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      records.add(record);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  @Inject
+  StoreProductWarehouseRepository repository;
+
+  @BeforeEach
+  void captureLog() {
+    QuarkusTransaction.requiringNew().run(() -> repository.deleteAll());
+    logger.addHandler(handler);
+    records.clear();
+  }
+
+  @AfterEach
+  void releaseLog() {
+    logger.removeHandler(handler);
+  }
+
+  @Test
+  void logsTheRepositoryMethodItsArgumentsAndSql() {
+    QuarkusTransaction.requiringNew().run(() -> repository.findByStore(42L));
+
+    assertEquals(1, records.size());
+    LogRecord record = records.get(0);
+    String message = format(record);
+    assertEquals(Level.WARNING, record.getLevel());
+    assertTrue(message.startsWith("Slow query StoreProductWarehouseRepository.findByStore(42) took "), message);
+    assertTrue(message.contains("from store_product_warehouse"), message);
+  }
+
+  @Test
+  void reportsNestedRepositoryCallsWithTheOutermostOne() {
+    // persist raises the counters through FulfillmentCounters, a repository of its own
+    QuarkusTransaction.requiringNew().run(() -> repository.persist(new StoreProductWarehouse(1L, 10L, "MWH.001")));
+
+    assertEquals(1, records.size());
+    String message = format(records.get(0));
+    assertTrue(message.contains("StoreProductWarehouseRepository.persist("), message);
+    assertTrue(message.contains("store_warehouse_count"), message);
+  }
+
+  private static String format(LogRecord record) {
+    String message = record.getMessage();
+    for (Object parameter : record.getParameters()) {
+      message = message.replaceFirst("\\{}", Matcher.quoteReplacement(String.valueOf(parameter)));
+    }
+    return message;
+  }
+}
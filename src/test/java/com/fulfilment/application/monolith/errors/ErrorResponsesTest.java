@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.errors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ErrorResponsesTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void rejectedRequestsCaptureNoStackTrace() {
+    RequestRejectedException exception = new RequestRejectedException("Store not found", Response.Status.NOT_FOUND);
+
+    assertEquals(0, exception.getStackTrace().length);
+    assertEquals(404, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void preallocatedErrorsReuseTheirRenderedBody() throws Exception {
+    RequestRejectedException exception = RequestRejectedException.preallocated("Name \"x\" was not set", 422);
+
+    Response first = ErrorResponses.toResponse(objectMapper, exception);
+    Response second = ErrorResponses.toResponse(objectMapper, exception);
+
+    assertEquals(422, first.getStatus());
+    assertSame(first.getEntity(), second.getEntity());
+    JsonNode body = objectMapper.readTree((String) first.getEntity());
+    assertEquals(WebApplicationException.class.getName(), body.get("exceptionType").asText());
+    assertEquals(422, body.get("code").asInt());
+    assertEquals("Name \"x\" was not set", body.get("error").asText());
+  }
+
+  @Test
+  void rejectedRequestsKeepTheWebApplicationExceptionType() {
+    Response response = ErrorResponses.toResponse(objectMapper,
+            new RequestRejectedException("Product with id of 7 does not exist.", Response.Status.NOT_FOUND));
+
+    ObjectNode body = assertInstanceOf(ObjectNode.class, response.getEntity());
+    assertEquals(404, response.getStatus());
+    assertEquals(WebApplicationException.class.getName(), body.get("exceptionType").asText());
+    assertEquals("Product with id of 7 does not exist.", body.get("error").asText());
+  }
+
+  @Test
+  void otherExceptionsAreServerErrors() {
+    Response response = ErrorResponses.toResponse(objectMapper, new IllegalStateException("boom"));
+
+    ObjectNode body = (ObjectNode) response.getEntity();
+    assertEquals(500, response.getStatus());
+    assertEquals(IllegalStateException.class.getName(), body.get("exceptionType").asText());
+  }
+}
@@ -0,0 +1,162 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationCreatedEvent;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentAssociationDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FulfillmentConstraintIndexTest {
+
+    private StoreProductWarehouseRepository repository;
+    private FulfillmentConstraintIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StoreProductWarehouseRepository.class);
+        List<Object[]> keys = new ArrayList<>();
+        keys.add(new Object[] {1L, 10L, "WH-001"});
+        keys.add(new Object[] {1L, 10L, "WH-002"});
+        keys.add(new Object[] {1L, 11L, "WH-001"});
+        keys.add(new Object[] {2L, 11L, "WH-003"});
+        when(repository.listAllKeys()).thenReturn(keys);
+
+        index = new FulfillmentConstraintIndex();
+        index.fulfillmentRepository = repository;
+    }
+
+    @Test
+    void testCountsAreBuiltFromRepository() {
+        assertTrue(index.exists(1L, 10L, "WH-001"));
+        assertFalse(index.exists(1L, 10L, "WH-003"));
+
+        assertEquals(2, index.countByStoreAndProduct(1L, 10L));
+        assertEquals(1, index.countByStoreAndProduct(1L, 11L));
+        assertEquals(0, index.countByStoreAndProduct(3L, 10L));
+
+        assertEquals(2, index.countDistinctWarehousesByStore(1L));
+        assertTrue(index.isWarehouseAssociatedWithStore(1L, "WH-002"));
+        assertFalse(index.isWarehouseAssociatedWithStore(1L, "WH-003"));
+
+        assertEquals(2, index.countProductsByWarehouse("WH-001"));
+        assertTrue(index.isProductInWarehouse("WH-003", 11L));
+        assertFalse(index.isProductInWarehouse("WH-003", 10L));
+    }
+
+    @Test
+    void testIndexIsLoadedOnlyOnce() {
+        index.countDistinctWarehousesByStore(1L);
+        index.countProductsByWarehouse("WH-001");
+
+        verify(repository, times(1)).listAllKeys();
+    }
+
+    @Test
+    void testCreatedEventUpdatesCounts() {
+        index.countDistinctWarehousesByStore(1L);
+
+        index.onAssociationCreated(new FulfillmentAssociationCreatedEvent(1L, 12L, "WH-003"));
+
+        assertTrue(index.exists(1L, 12L, "WH-003"));
+        assertEquals(3, index.countDistinctWarehousesByStore(1L));
+        assertEquals(2, index.countProductsByWarehouse("WH-003"));
+    }
+
+    @Test
+    void testDuplicateCreatedEventIsIgnored() {
+        index.countDistinctWarehousesByStore(1L);
+
+        index.onAssociationCreated(new FulfillmentAssociationCreatedEvent(1L, 10L, "WH-001"));
+
+        assertEquals(2, index.countByStoreAndProduct(1L, 10L));
+        assertEquals(2, index.countProductsByWarehouse("WH-001"));
+    }
+
+    @Test
+    void testDeletedEventKeepsWarehouseWhileOtherAssociationsRemain() {
+        index.countDistinctWarehousesByStore(1L);
+
+        index.onAssociationDeleted(new FulfillmentAssociationDeletedEvent(1L, 10L, "WH-001"));
+
+        assertFalse(index.exists(1L, 10L, "WH-001"));
+        assertEquals(1, index.countByStoreAndProduct(1L, 10L));
+        // Store 1 still uses WH-001 for product 11
+        assertTrue(index.isWarehouseAssociatedWithStore(1L, "WH-001"));
+        assertEquals(2, index.countDistinctWarehousesByStore(1L));
+        assertFalse(index.isProductInWarehouse("WH-001", 10L));
+
+        index.onAssociationDeleted(new FulfillmentAssociationDeletedEvent(1L, 11L, "WH-001"));
+
+        assertFalse(index.isWarehouseAssociatedWithStore(1L, "WH-001"));
+        assertEquals(1, index.countDistinctWarehousesByStore(1L));
+        assertEquals(0, index.countProductsByWarehouse("WH-001"));
+    }
+
+    @Test
+    void testEventsBeforeLoadAreIgnored() {
+        index.onAssociationCreated(new FulfillmentAssociationCreatedEvent(5L, 50L, "WH-005"));
+
+        assertFalse(index.exists(5L, 50L, "WH-005"));
+    }
+
+    @Test
+    void testInvalidateReloadsFromRepository() {
+        index.countDistinctWarehousesByStore(1L);
+        when(repository.listAllKeys()).thenReturn(List.<Object[]>of(new Object[] {3L, 30L, "WH-009"}));
+
+        index.invalidate();
+
+        assertEquals(0, index.countDistinctWarehousesByStore(1L));
+        assertTrue(index.exists(3L, 30L, "WH-009"));
+        verify(repository, times(2)).listAllKeys();
+    }
+
+    @Test
+    void testRefreshReplacesTheEntriesOfTheGivenKeys() {
+        index.countDistinctWarehousesByStore(1L);
+
+        // another node deleted (1, 10, WH-002) and created (1, 12, WH-003) and (4, 40, WH-001)
+        index.refresh(Set.of(1L), Set.of("WH-001"), List.of(
+                new Object[] {1L, 10L, "WH-001"},
+                new Object[] {1L, 11L, "WH-001"},
+                new Object[] {1L, 12L, "WH-003"},
+                new Object[] {4L, 40L, "WH-001"}));
+
+        assertFalse(index.exists(1L, 10L, "WH-002"));
+        assertTrue(index.exists(1L, 12L, "WH-003"));
+        assertEquals(2, index.countDistinctWarehousesByStore(1L));
+        assertEquals(3, index.countProductsByWarehouse("WH-001"));
+        assertEquals(2, index.countProductsByWarehouse("WH-003"));
+        assertEquals(0, index.countProductsByWarehouse("WH-002"));
+        // store 2 was not refreshed
+        assertTrue(index.exists(2L, 11L, "WH-003"));
+    }
+
+    @Test
+    void testRefreshOfOneStoreKeepsAWarehouseSharedWithAnotherStoreConsistent() {
+        index.countDistinctWarehousesByStore(1L);
+
+        // store 2 also uses WH-001 since another node created (2, 20, WH-001)
+        index.refresh(Set.of(1L), Set.of("WH-001"), List.of(
+                new Object[] {1L, 10L, "WH-001"},
+                new Object[] {1L, 10L, "WH-002"},
+                new Object[] {1L, 11L, "WH-001"},
+                new Object[] {2L, 20L, "WH-001"}));
+
+        assertTrue(index.exists(2L, 20L, "WH-001"));
+        assertEquals(3, index.countProductsByWarehouse("WH-001"));
+
+        index.onAssociationDeleted(new FulfillmentAssociationDeletedEvent(2L, 20L, "WH-001"));
+
+        assertFalse(index.isProductInWarehouse("WH-001", 20L));
+        assertEquals(2, index.countProductsByWarehouse("WH-001"));
+        assertFalse(index.isWarehouseAssociatedWithStore(2L, "WH-001"));
+        assertTrue(index.exists(2L, 11L, "WH-003"));
+    }
+}
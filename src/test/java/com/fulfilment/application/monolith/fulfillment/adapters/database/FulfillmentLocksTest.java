@@ -0,0 +1,168 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfillment.domain.usecases.FulfillmentUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class FulfillmentLocksTest {
+
+    private static final long STORE_ID = 9001L;
+    private static final long PRODUCT_ID = 9001L;
+    private static final long OTHER_PRODUCT_ID = 9002L;
+
+    @Inject
+    FulfillmentUseCase useCase;
+
+    @Inject
+    StoreProductWarehouseRepository repository;
+
+    @Inject
+    FulfillmentCounters counters;
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> repository.findByStore(STORE_ID).forEach(association ->
+                repository.deleteByStoreAndProductAndWarehouse(
+                        STORE_ID, association.getProductId(), association.getWarehouseBusinessUnitCode())));
+    }
+
+    @Test
+    void testConcurrentCreatesStayWithinTheLimits() throws Exception {
+        // a product may be fulfilled by two warehouses per store, three creates race for those two slots
+        List<String> warehouses = List.of("MWH.001", "MWH.012", "MWH.023");
+        ExecutorService executor = Executors.newFixedThreadPool(warehouses.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> creates = new ArrayList<>();
+            for (String warehouse : warehouses) {
+                creates.add(executor.submit(() -> {
+                    start.await();
+                    return useCase.createAssociation(request(warehouse));
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> create : creates) {
+                try {
+                    create.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // rejected by a limit, or because another test class archived the warehouse
+                    assertInstanceOf(WarehouseValidationException.class, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, repository.countByStoreAndProduct(STORE_ID, PRODUCT_ID));
+    }
+
+    @Test
+    void testConcurrentCreatesAndDeletesKeepTheCountsExact() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int round = 0; round < 20; round++) {
+                createIgnoringLimits(request(PRODUCT_ID, "MWH.001"));
+                createIgnoringLimits(request(OTHER_PRODUCT_ID, "MWH.001"));
+
+                // each delete alone leaves the store on MWH.001 through the other product, together they do not
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> writes = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return deleteIgnoringMissing(PRODUCT_ID, "MWH.001");
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return deleteIgnoringMissing(OTHER_PRODUCT_ID, "MWH.001");
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return createIgnoringLimits(request(OTHER_PRODUCT_ID, "MWH.012"));
+                        }));
+                start.countDown();
+                for (Future<?> write : writes) {
+                    write.get(30, TimeUnit.SECONDS);
+                }
+
+                List<Long> counted = counts();
+                QuarkusTransaction.requiringNew().run(() ->
+                        counters.recount(Set.of(STORE_ID), Set.of("MWH.001", "MWH.012")));
+                assertEquals(counts(), counted, "counts after round " + round);
+
+                tearDown();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testKeysAreOrderedStoresFirst() {
+        List<FulfillmentLocks.LockKey> keys = FulfillmentLocks.keys(Set.of(2L, 1L), Set.of("MWH.001"));
+
+        assertEquals(List.of(
+                new FulfillmentLocks.LockKey(FulfillmentLocks.STORE_LOCK_SPACE, 1),
+                new FulfillmentLocks.LockKey(FulfillmentLocks.STORE_LOCK_SPACE, 2),
+                new FulfillmentLocks.LockKey(FulfillmentLocks.WAREHOUSE_LOCK_SPACE, "MWH.001".hashCode())), keys);
+    }
+
+    private List<Long> counts() {
+        return QuarkusTransaction.requiringNew().call(() -> List.of(
+                counters.countWarehousesForProduct(STORE_ID, PRODUCT_ID),
+                counters.countWarehousesForProduct(STORE_ID, OTHER_PRODUCT_ID),
+                counters.countWarehousesForStore(STORE_ID),
+                counters.countProductsForWarehouse("MWH.001"),
+                counters.countProductsForWarehouse("MWH.012")));
+    }
+
+    private Object createIgnoringLimits(FulfillmentAssociationRequest request) {
+        try {
+            return useCase.createAssociation(request);
+        } catch (WarehouseValidationException e) {
+            // another test class archived the warehouse
+            return null;
+        }
+    }
+
+    private Object deleteIgnoringMissing(long productId, String warehouseCode) {
+        try {
+            useCase.deleteAssociation(STORE_ID, productId, warehouseCode);
+        } catch (WebApplicationException e) {
+            // not created, see createIgnoringLimits
+            assertEquals(404, e.getResponse().getStatus());
+        }
+        return null;
+    }
+
+    private static FulfillmentAssociationRequest request(String warehouseCode) {
+        return request(PRODUCT_ID, warehouseCode);
+    }
+
+    private static FulfillmentAssociationRequest request(long productId, String warehouseCode) {
+        FulfillmentAssociationRequest request = new FulfillmentAssociationRequest();
+        request.setStoreId(STORE_ID);
+        request.setProductId(productId);
+        request.setWarehouseBusinessUnitCode(warehouseCode);
+        return request;
+    }
+}
@@ -1,6 +1,8 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.database;
 
 import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -8,7 +10,15 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,6 +28,9 @@ public class StoreProductWarehouseRepositoryTest {
     @Inject
     StoreProductWarehouseRepository repository;
 
+    @Inject
+    FulfillmentCounters counters;
+
     @BeforeEach
     @Transactional
     void setUp() {
@@ -138,6 +151,106 @@ public class StoreProductWarehouseRepositoryTest {
         assertEquals(3, count);
     }
 
+    @Test
+    @Transactional
+    void testPersistRejectsAssociationsOverTheLimits() {
+        repository.persist(new StoreProductWarehouse(1L, 10L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(1L, 10L, "WH-002"));
+        repository.persist(new StoreProductWarehouse(1L, 11L, "WH-003"));
+
+        // a third warehouse for the product, then a fourth for the store
+        assertThrows(WarehouseValidationException.class,
+                () -> repository.persist(new StoreProductWarehouse(1L, 10L, "WH-003")));
+        assertThrows(WarehouseValidationException.class,
+                () -> repository.persistAll(List.of(new StoreProductWarehouse(1L, 12L, "WH-004"))));
+
+        assertEquals(2, repository.countByStoreAndProduct(1L, 10L));
+        assertEquals(3, repository.countDistinctWarehousesByStore(1L));
+    }
+
+    @Test
+    @Transactional
+    void testPersistAllCountsEachPairOnce() {
+        repository.persist(new StoreProductWarehouse(2L, 10L, "WH-001"));
+        repository.persistAll(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 11L, "WH-001"),
+                new StoreProductWarehouse(1L, 11L, "WH-002")));
+
+        assertEquals(1, repository.countByStoreAndProduct(1L, 10L));
+        assertEquals(2, repository.countByStoreAndProduct(1L, 11L));
+        assertEquals(2, repository.countDistinctWarehousesByStore(1L));
+        assertEquals(2, repository.countProductsByWarehouse("WH-001"));
+        assertEquals(1, repository.countProductsByWarehouse("WH-002"));
+    }
+
+    @Test
+    @Transactional
+    void testDeletesKeepTheCountsUpToDate() {
+        repository.persist(new StoreProductWarehouse(1L, 10L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(1L, 11L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(2L, 10L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(2L, 12L, "WH-002"));
+
+        repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001");
+
+        assertEquals(0, repository.countByStoreAndProduct(1L, 10L));
+        // store 1 still uses WH-001 for product 11, and store 2 keeps product 10 in it
+        assertEquals(1, repository.countDistinctWarehousesByStore(1L));
+        assertEquals(2, repository.countProductsByWarehouse("WH-001"));
+
+        deleteMatching(FulfillmentFilter.byStore(2L));
+
+        assertEquals(0, repository.countDistinctWarehousesByStore(2L));
+        assertEquals(1, repository.countProductsByWarehouse("WH-001"));
+        assertEquals(0, repository.countProductsByWarehouse("WH-002"));
+        assertEquals(1, repository.countDistinctWarehousesByStore(1L));
+    }
+
+    @Test
+    void testConcurrentWritesKeepTheCountsExactWithoutTheLocks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int round = 0; round < 20; round++) {
+                QuarkusTransaction.requiringNew().run(() -> repository.persistAll(List.of(
+                        new StoreProductWarehouse(1L, 10L, "WH-001"),
+                        new StoreProductWarehouse(1L, 11L, "WH-001"))));
+
+                // no FulfillmentLocks here, only the locks FulfillmentCounters takes on the count rows
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> writes = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return QuarkusTransaction.requiringNew().call(() ->
+                                    repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001"));
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return QuarkusTransaction.requiringNew().call(() ->
+                                    repository.deleteByStoreAndProductAndWarehouse(1L, 11L, "WH-001"));
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            QuarkusTransaction.requiringNew().run(() ->
+                                    repository.persist(new StoreProductWarehouse(1L, 11L, "WH-002")));
+                            return null;
+                        }));
+                start.countDown();
+                for (Future<?> write : writes) {
+                    write.get(30, TimeUnit.SECONDS);
+                }
+
+                List<Long> counted = counts();
+                QuarkusTransaction.requiringNew().run(() -> counters.recount(Set.of(1L), Set.of("WH-001", "WH-002")));
+                assertEquals(counts(), counted, "counts after round " + round);
+
+                QuarkusTransaction.requiringNew().run(() -> repository.deleteAll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     @Transactional
     void testExists() {
@@ -158,10 +271,28 @@ public class StoreProductWarehouseRepositoryTest {
 
         assertTrue(repository.exists(1L, 10L, "WH-001"));
 
-        repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001");
+        assertTrue(repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001"));
 
         assertFalse(repository.exists(1L, 10L, "WH-001"));
         assertTrue(repository.exists(1L, 11L, "WH-002")); // Other associations remain
+        assertFalse(repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001"));
+    }
+
+    @Test
+    @Transactional
+    void testDeleteMatching() {
+        repository.persist(new StoreProductWarehouse(1L, 10L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(1L, 11L, "WH-002"));
+        repository.persist(new StoreProductWarehouse(2L, 10L, "WH-002"));
+        repository.persist(new StoreProductWarehouse(3L, 12L, "WH-003"));
+
+        assertEquals(2, deleteMatching(FulfillmentFilter.byStore(1L)));
+        assertEquals(1, deleteMatching(FulfillmentFilter.byProduct(10L)));
+        assertEquals(0, deleteMatching(FulfillmentFilter.byWarehouse("WH-002")));
+        assertEquals(1, deleteMatching(FulfillmentFilter.byWarehouse("WH-003")));
+        assertEquals(0, repository.count());
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.deleteMatching(FulfillmentFilter.all(), Set.of(1L), Set.of("WH-001")));
     }
 
     @Test
@@ -176,6 +307,42 @@ public class StoreProductWarehouseRepositoryTest {
         assertEquals(3, all.size());
     }
 
+    @Test
+    @Transactional
+    void testFindPageSeeksAfterId() {
+        StoreProductWarehouse first = new StoreProductWarehouse(1L, 10L, "WH-001");
+        StoreProductWarehouse second = new StoreProductWarehouse(1L, 11L, "WH-002");
+        StoreProductWarehouse third = new StoreProductWarehouse(1L, 12L, "WH-003");
+        repository.persist(first);
+        repository.persist(new StoreProductWarehouse(2L, 10L, "WH-001"));
+        repository.persist(second);
+        repository.persist(third);
+
+        List<StoreProductWarehouse> page = repository.findPage(FulfillmentFilter.byStore(1L), null, 2);
+
+        assertEquals(List.of(first.id, second.id), page.stream().map(a -> a.id).toList());
+
+        List<StoreProductWarehouse> next = repository.findPage(FulfillmentFilter.byStore(1L), second.id, 2);
+
+        assertEquals(List.of(third.id), next.stream().map(a -> a.id).toList());
+        assertEquals(4, repository.findPage(FulfillmentFilter.all(), null, 10).size());
+    }
+
+    @Test
+    @Transactional
+    void testStreamByWarehouse() {
+        repository.persist(new StoreProductWarehouse(1L, 10L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(2L, 11L, "WH-001"));
+        repository.persist(new StoreProductWarehouse(3L, 12L, "WH-002"));
+
+        try (Stream<StoreProductWarehouse> associations =
+                     repository.stream(FulfillmentFilter.byWarehouse("WH-001"))) {
+            List<Long> storeIds = associations.map(StoreProductWarehouse::getStoreId).toList();
+
+            assertEquals(List.of(1L, 2L), storeIds);
+        }
+    }
+
     @Test
     @Transactional
     void testFindByStoreReturnsEmptyListWhenNoResults() {
@@ -192,4 +359,24 @@ public class StoreProductWarehouseRepositoryTest {
 
         assertEquals(0, count);
     }
+
+    private List<Long> counts() {
+        return QuarkusTransaction.requiringNew().call(() -> List.of(
+                counters.countWarehousesForProduct(1L, 10L),
+                counters.countWarehousesForProduct(1L, 11L),
+                counters.countWarehousesForStore(1L),
+                counters.countProductsForWarehouse("WH-001"),
+                counters.countProductsForWarehouse("WH-002")));
+    }
+
+    // what FulfillmentUseCase#deleteAssociations deletes, without taking the locks
+    private long deleteMatching(FulfillmentFilter filter) {
+        Set<Long> storeIds = new HashSet<>();
+        Set<String> warehouseCodes = new HashSet<>();
+        for (Object[] pair : repository.listStoresAndWarehouses(filter)) {
+            storeIds.add((Long) pair[0]);
+            warehouseCodes.add((String) pair[1]);
+        }
+        return repository.deleteMatching(filter, storeIds, warehouseCodes);
+    }
 }
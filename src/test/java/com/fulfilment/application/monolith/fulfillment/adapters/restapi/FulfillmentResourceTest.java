@@ -1,5 +1,6 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
 
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
 import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
@@ -11,7 +12,10 @@ import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
@@ -20,6 +24,8 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 
 import static io.restassured.RestAssured.given;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -65,6 +71,71 @@ public class FulfillmentResourceTest {
                 .body("size()", is(0));
     }
 
+    @Test
+    void testListAllPage() {
+        StoreProductWarehouse association = new StoreProductWarehouse(1L, 10L, "WH-001");
+        association.id = 6L;
+        when(repository.findPage(any(FulfillmentFilter.class), eq(5L), eq(1)))
+                .thenReturn(List.of(association));
+
+        given()
+                .queryParam("after", 5)
+                .queryParam("limit", 1)
+                .when().get("/fulfillment")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].id", equalTo(6));
+
+        verify(repository, never()).listAll();
+    }
+
+    @Test
+    void testGetByStorePageUsesDefaultLimit() {
+        when(repository.findPage(any(FulfillmentFilter.class), eq(3L), anyInt()))
+                .thenReturn(List.of());
+
+        given()
+                .pathParam("storeId", 1)
+                .queryParam("after", 3)
+                .when().get("/fulfillment/store/{storeId}")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+
+        verify(repository).findPage(any(FulfillmentFilter.class), eq(3L), eq(100));
+    }
+
+    @Test
+    void testListAllPageWithLimitOutOfRange() {
+        given()
+                .queryParam("limit", 5000)
+                .when().get("/fulfillment")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testStreamByStore() {
+        when(repository.stream(any(FulfillmentFilter.class))).thenReturn(Stream.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 11L, "WH-002")
+        ));
+
+        String body = given()
+                .accept("application/x-ndjson")
+                .pathParam("storeId", 1)
+                .when().get("/fulfillment/store/{storeId}")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+
+        String[] lines = body.split("\n");
+        org.junit.jupiter.api.Assertions.assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"warehouseBusinessUnitCode\":\"WH-001\""));
+        assertTrue(lines[1].contains("\"productId\":11"));
+    }
+
     @Test
     void testGetByStore() {
         when(repository.findByStore(1L)).thenReturn(List.of(
@@ -160,6 +231,53 @@ public class FulfillmentResourceTest {
                 .body("error", containsString("Warehouse does not exist"));
     }
 
+    @Test
+    void testCreateAssociationsBatch() {
+        when(validationService.validateFulfillmentAssociations(anyList()))
+                .thenReturn(Arrays.asList(null, "Store 1 already has the maximum of 3 different warehouses"));
+
+        String batch = """
+                [
+                  {"storeId": 1, "productId": 10, "warehouseBusinessUnitCode": "WH-001"},
+                  {"storeId": 1, "productId": 11, "warehouseBusinessUnitCode": "WH-004"}
+                ]
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(batch)
+                .when().post("/fulfillment/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .body("[0].status", equalTo(201))
+                .body("[0].association.warehouseBusinessUnitCode", equalTo("WH-001"))
+                .body("[1].status", equalTo(400))
+                .body("[1].error", containsString("maximum of 3 different warehouses"));
+
+        verify(repository, times(1)).persistAll(argThat(associations -> associations.size() == 1));
+    }
+
+    @Test
+    void testCreateAssociationsBatchWithInvalidItem() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("[{\"storeId\":1,\"productId\":10}]")
+                .when().post("/fulfillment/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testCreateAssociationsEmptyBatch() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("[]")
+                .when().post("/fulfillment/batch")
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void testCreateAssociationWithNullFields() {
         given()
@@ -170,6 +288,46 @@ public class FulfillmentResourceTest {
                 .statusCode(400);
     }
 
+    @Test
+    void testDeleteAssociation() {
+        when(repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001")).thenReturn(true);
+
+        given()
+                .when().delete("/fulfillment/store/1/product/10/warehouse/WH-001")
+                .then()
+                .statusCode(204);
+
+        verify(repository, never()).exists(anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    void testDeleteMissingAssociation() {
+        when(repository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001")).thenReturn(false);
+
+        given()
+                .when().delete("/fulfillment/store/1/product/10/warehouse/WH-001")
+                .then()
+                .statusCode(404)
+                .body("error", containsString("not found"));
+    }
+
+    @Test
+    void testDeleteByWarehouse() {
+        when(repository.listStoresAndWarehouses(any(FulfillmentFilter.class)))
+                .thenReturn(List.<Object[]>of(new Object[] {1L, "WH-001"}, new Object[] {2L, "WH-001"}));
+        when(repository.deleteMatching(any(FulfillmentFilter.class), anyCollection(), anyCollection())).thenReturn(3L);
+
+        given()
+                .when().delete("/fulfillment/warehouse/WH-001")
+                .then()
+                .statusCode(200)
+                .body("deleted", equalTo(3));
+
+        verify(repository).deleteMatching(argThat(filter ->
+                "warehouseBusinessUnitCode".equals(filter.getField()) && "WH-001".equals(filter.getValue())),
+                eq(Set.of(1L, 2L)), eq(Set.of("WH-001")));
+    }
+
     private void assertFalse(boolean condition) {
         org.junit.jupiter.api.Assertions.assertFalse(condition);
     }
@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockReservations;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+@QuarkusTest
+public class FulfillmentRoutingResourceTest {
+
+    private static final long STORE_ID = 9004L;
+    private static final long PRODUCT_ID = 9004L;
+    private static final long OTHER_PRODUCT_ID = 9005L;
+    private static final String LARGE = "MWH.ROUTE.A";
+    private static final String SMALL = "MWH.ROUTE.B";
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    StoreProductWarehouseRepository fulfillmentRepository;
+
+    @Inject
+    StockReservations stockReservations;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            warehouseRepository.create(warehouse(LARGE, 40));
+            warehouseRepository.create(warehouse(SMALL, 10));
+            fulfillmentRepository.persist(new StoreProductWarehouse(STORE_ID, PRODUCT_ID, LARGE));
+            fulfillmentRepository.persist(new StoreProductWarehouse(STORE_ID, PRODUCT_ID, SMALL));
+            // the small warehouse already supplies another of the store's products
+            fulfillmentRepository.persist(new StoreProductWarehouse(STORE_ID, OTHER_PRODUCT_ID, SMALL));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            fulfillmentRepository.findByStore(STORE_ID).forEach(association ->
+                    fulfillmentRepository.deleteByStoreAndProductAndWarehouse(
+                            STORE_ID, association.getProductId(), association.getWarehouseBusinessUnitCode()));
+            for (String code : List.of(LARGE, SMALL)) {
+                Warehouse warehouse;
+                while ((warehouse = warehouseRepository.findByBusinessUnitCode(code)) != null) {
+                    warehouseRepository.remove(warehouse);
+                }
+            }
+        });
+        stockReservations.refresh(Set.of(LARGE, SMALL));
+    }
+
+    @Test
+    public void testRanksTheWarehousesByTheCostFunction() {
+        // utilization: 5 of 40 units promised at the large warehouse against 5 of 10 at the small one
+        given().when().get(routing(5, null)).then()
+                .statusCode(200)
+                .body("warehouseBusinessUnitCode", contains(LARGE, SMALL))
+                .body("[0].rank", equalTo(1))
+                .body("[0].available", equalTo(40));
+
+        given().when().get(routing(5, "affinity")).then()
+                .statusCode(200)
+                .body("warehouseBusinessUnitCode", contains(SMALL, LARGE));
+    }
+
+    @Test
+    public void testLeavesOutWarehousesWithoutEnoughAvailableStock() {
+        given().when().get(routing(20, null)).then()
+                .statusCode(200)
+                .body("warehouseBusinessUnitCode", contains(LARGE));
+
+        stockReservations.reserve(LARGE, 38);
+        given().when().get(routing(5, null)).then()
+                .statusCode(200)
+                .body("warehouseBusinessUnitCode", contains(SMALL));
+        given().when().get(routing(11, null)).then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
+    }
+
+    @Test
+    public void testRejectsInvalidRequests() {
+        given().when().get(routing(5, "cheapest")).then()
+                .statusCode(400)
+                .body(containsString("Unknown routing cost function"));
+        given().when().get("/fulfillment/routing?storeId=" + STORE_ID + "&productId=" + PRODUCT_ID).then()
+                .statusCode(400);
+        given().when().get(routing(0, null)).then()
+                .statusCode(400);
+    }
+
+    private static String routing(int quantity, String cost) {
+        return "/fulfillment/routing?storeId=" + STORE_ID + "&productId=" + PRODUCT_ID + "&quantity=" + quantity
+                + (cost != null ? "&cost=" + cost : "");
+    }
+
+    private static Warehouse warehouse(String code, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = code;
+        warehouse.location = "VETSBY-001";
+        warehouse.capacity = 90;
+        warehouse.stock = stock;
+        warehouse.createdAt = LocalDateTime.now();
+        return warehouse;
+    }
+}
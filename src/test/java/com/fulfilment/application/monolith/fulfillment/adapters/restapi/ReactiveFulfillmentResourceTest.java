@@ -0,0 +1,236 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentConstraintIndex;
+import com.fulfilment.application.monolith.fulfillment.adapters.database.ReactiveStoreProductWarehouseRepository;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the fulfillment API with the reactive path built in, against the database seeded by
+ * db/test-data/R__test_data.sql.
+ */
+@QuarkusTest
+@TestProfile(ReactiveFulfillmentResourceTest.ReactiveProfile.class)
+public class ReactiveFulfillmentResourceTest {
+
+    public static class ReactiveProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("fulfillment.reactive.enabled", "true");
+        }
+    }
+
+    // only built with the reactive path, which the other test profiles leave out
+    @Inject
+    Instance<ReactiveStoreProductWarehouseRepository> fulfillmentRepository;
+
+    @Inject
+    FulfillmentConstraintIndex constraintIndex;
+
+    @Test
+    void testCreateAndReadAssociation() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(1, 1, "MWH.001"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201)
+                .body("id", greaterThan(0))
+                .body("storeId", equalTo(1))
+                .body("warehouseBusinessUnitCode", equalTo("MWH.001"))
+                .body("createdAt", notNullValue());
+
+        given()
+                .pathParam("storeId", 1)
+                .when().get("/fulfillment/store/{storeId}")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].productId", equalTo(1));
+
+        given()
+                .pathParam("warehouseBusinessUnitCode", "MWH.001")
+                .queryParam("limit", 1)
+                .when().get("/fulfillment/warehouse/{warehouseBusinessUnitCode}")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("warehouseBusinessUnitCode", everyItem(equalTo("MWH.001")));
+    }
+
+    @Test
+    void testCreateDuplicateAssociationIsRejected() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(2, 2, "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(2, 2, "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("already exists"));
+    }
+
+    @Test
+    void testCreateWithUnknownWarehouseIsRejected() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(3, 3, "MWH.999"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("does not exist or is archived"));
+    }
+
+    @Test
+    void testDeleteStaysAvailable() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(3, 1, "MWH.023"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        given()
+                .when().delete("/fulfillment/store/3/product/1/warehouse/MWH.023")
+                .then()
+                .statusCode(204);
+
+        given()
+                .pathParam("productId", 1)
+                .when().get("/fulfillment/product/{productId}")
+                .then()
+                .statusCode(200)
+                .body("storeId", everyItem(not(3)));
+    }
+
+    @Test
+    void testListAllPageWithLimitOutOfRange() {
+        given()
+                .queryParam("limit", 5000)
+                .when().get("/fulfillment")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testConcurrentCreatesStayWithinTheLimits() throws Exception {
+        // a product may be fulfilled by two warehouses per store, three creates race for those two slots
+        List<String> warehouses = List.of("MWH.001", "MWH.012", "MWH.023");
+        ExecutorService executor = Executors.newFixedThreadPool(warehouses.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (String warehouse : warehouses) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return given()
+                            .contentType(ContentType.JSON)
+                            .body(association(9002, 9002, warehouse))
+                            .when().post("/fulfillment")
+                            .then()
+                            .extract()
+                            .statusCode();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Integer> status : statuses) {
+                if (status.get(30, TimeUnit.SECONDS) == 201) {
+                    created++;
+                }
+            }
+            assertEquals(2, created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRolledBackCreateStaysOutOfTheIndex() {
+        QuarkusTransaction.requiringNew().run(constraintIndex::load);
+        StoreProductWarehouse association = new StoreProductWarehouse(9003L, 9003L, "MWH.001");
+        association.setCreatedAt(LocalDateTime.now());
+
+        ReactiveStoreProductWarehouseRepository repository = fulfillmentRepository.get();
+        assertThrows(IllegalStateException.class, () -> repository
+                .withAssociationLocks(9003L, "MWH.001", connection -> repository.persist(connection, association)
+                        .chain(() -> Uni.createFrom().failure(new IllegalStateException("rolled back"))))
+                .await().atMost(Duration.ofSeconds(30)));
+
+        assertFalse(constraintIndex.exists(9003L, 9003L, "MWH.001"));
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(9003, 9003, "MWH.001"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+        assertTrue(constraintIndex.exists(9003L, 9003L, "MWH.001"));
+    }
+
+    @Test
+    void testCreateAfterABulkDeleteDroppedTheIndex() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(9004, 1, "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+        given()
+                .when().delete("/fulfillment/store/9004")
+                .then()
+                .statusCode(200)
+                .body("deleted", equalTo(1));
+        assertFalse(constraintIndex.isLoaded());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(association(9004, 1, "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+    }
+
+    private static String association(long storeId, long productId, String warehouseCode) {
+        return "{\"storeId\": " + storeId + ", \"productId\": " + productId
+                + ", \"warehouseBusinessUnitCode\": \"" + warehouseCode + "\"}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.fulfillment.domain.services;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.RoutingCandidate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UtilizationCostFunctionTest {
+
+    private final UtilizationCostFunction costFunction = new UtilizationCostFunction();
+
+    @Test
+    void testCostIsTheShareOfStockPromisedAfterTheOrder() {
+        assertEquals(0.5, costFunction.cost(candidate(100, 40), 10));
+    }
+
+    @Test
+    void testWarehouseWithoutStockRanksLast() {
+        assertEquals(Double.POSITIVE_INFINITY, costFunction.cost(candidate(0, 0), 0));
+        assertEquals(Double.POSITIVE_INFINITY, costFunction.cost(candidate(-5, 0), 1));
+        assertTrue(costFunction.cost(candidate(1, 1), 0) < costFunction.cost(candidate(0, 0), 0));
+    }
+
+    private static RoutingCandidate candidate(int stock, int reserved) {
+        return new RoutingCandidate("MWH.001", "AMSTERDAM-001", 100, stock, reserved, 0);
+    }
+}
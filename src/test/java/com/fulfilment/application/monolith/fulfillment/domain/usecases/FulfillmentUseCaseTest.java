@@ -1,8 +1,10 @@
 package com.fulfilment.application.monolith.fulfillment.domain.usecases;
 
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentFilter;
 import com.fulfilment.application.monolith.fulfillment.adapters.database.StoreProductWarehouseRepository;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationRequest;
 import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentAssociationResponse;
+import com.fulfilment.application.monolith.fulfillment.adapters.restapi.dto.FulfillmentBatchItemResult;
 import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
 import com.fulfilment.application.monolith.warehouses.domain.services.WarehouseValidationService;
 import io.quarkus.test.junit.QuarkusTest;
@@ -13,10 +15,14 @@ import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
@@ -95,6 +101,25 @@ class FulfillmentUseCaseTest {
                 result.get(0).getWarehouseBusinessUnitCode());
     }
 
+    @Test
+    void streamAll_mapsAndDetachesEachAssociation() {
+        StoreProductWarehouse first = new StoreProductWarehouse(1L, 10L, "WH-001");
+        StoreProductWarehouse second = new StoreProductWarehouse(1L, 11L, "WH-002");
+        FulfillmentFilter filter = FulfillmentFilter.byStore(1L);
+
+        when(fulfillmentRepository.stream(filter))
+                .thenReturn(Stream.of(first, second));
+
+        List<FulfillmentAssociationResponse> received = new ArrayList<>();
+        useCase.streamAll(filter, received::add);
+
+        assertEquals(2, received.size());
+        assertEquals("WH-002",
+                received.get(1).getWarehouseBusinessUnitCode());
+        verify(fulfillmentRepository).detach(first);
+        verify(fulfillmentRepository).detach(second);
+    }
+
     @Test
     void createAssociation_validRequest_persistsAndReturnsResponse() {
         FulfillmentAssociationRequest request = new FulfillmentAssociationRequest();
@@ -121,9 +146,44 @@ class FulfillmentUseCaseTest {
         assertNotNull(response.getCreatedAt());
     }
 
+    @Test
+    void createAssociations_persistsAcceptedAndReportsRejected() {
+        FulfillmentAssociationRequest accepted = new FulfillmentAssociationRequest();
+        accepted.setStoreId(1L);
+        accepted.setProductId(10L);
+        accepted.setWarehouseBusinessUnitCode("WH-001");
+
+        FulfillmentAssociationRequest rejected = new FulfillmentAssociationRequest();
+        rejected.setStoreId(1L);
+        rejected.setProductId(11L);
+        rejected.setWarehouseBusinessUnitCode("WH-404");
+
+        when(validationService.validateFulfillmentAssociations(anyList()))
+                .thenReturn(Arrays.asList(null, "Warehouse does not exist"));
+
+        List<FulfillmentBatchItemResult> results =
+                useCase.createAssociations(List.of(accepted, rejected));
+
+        verify(fulfillmentRepository, times(1))
+                .persistAll(argThat(associations -> associations.size() == 1
+                        && "WH-001".equals(associations.get(0).getWarehouseBusinessUnitCode())));
+
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals("WH-001",
+                results.get(0).getAssociation().getWarehouseBusinessUnitCode());
+        assertNull(results.get(0).getError());
+
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(400, results.get(1).getStatus());
+        assertNull(results.get(1).getAssociation());
+        assertEquals("Warehouse does not exist", results.get(1).getError());
+    }
+
     @Test
     void deleteAssociation_existingAssociation_deletesSuccessfully() {
-        when(fulfillmentRepository.exists(1L, 10L, "WH-001"))
+        when(fulfillmentRepository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001"))
                 .thenReturn(true);
 
         useCase.deleteAssociation(1L, 10L, "WH-001");
@@ -131,11 +191,12 @@ class FulfillmentUseCaseTest {
         verify(fulfillmentRepository)
                 .deleteByStoreAndProductAndWarehouse(
                         1L, 10L, "WH-001");
+        verify(fulfillmentRepository, never()).exists(any(), any(), any());
     }
 
     @Test
     void deleteAssociation_missingAssociation_throwsNotFound() {
-        when(fulfillmentRepository.exists(1L, 10L, "WH-001"))
+        when(fulfillmentRepository.deleteByStoreAndProductAndWarehouse(1L, 10L, "WH-001"))
                 .thenReturn(false);
 
         WebApplicationException exception =
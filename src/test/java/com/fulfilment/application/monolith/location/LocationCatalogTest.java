@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationCatalogTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testLoadSkipsCommentsAndBlankLines() throws Exception {
+    // given
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, """
+        # identification,maxNumberOfWarehouses,maxCapacity
+        ROTTERDAM-001, 4, 120
+
+        UTRECHT-001,2,60
+        """);
+
+    // when
+    LocationCatalog catalog = LocationCatalog.load(file);
+
+    // then
+    assertEquals(2, catalog.size());
+    Location rotterdam = catalog.find("ROTTERDAM-001");
+    assertNotNull(rotterdam);
+    assertEquals(4, rotterdam.getMaxNumberOfWarehouses());
+    assertEquals(120, rotterdam.getMaxCapacity());
+    assertNull(catalog.find("ZWOLLE-001"));
+  }
+
+  @Test
+  public void testLoadRejectsMalformedLine() throws Exception {
+    // given
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "ROTTERDAM-001,4,120\nUTRECHT-001,two,60\n");
+
+    // when & then
+    IllegalArgumentException exception =
+            assertThrows(IllegalArgumentException.class, () -> LocationCatalog.load(file));
+    assertTrue(exception.getMessage().contains("line 2"));
+  }
+
+  @Test
+  public void testOfRejectsDuplicateIdentification() {
+    // when & then
+    assertThrows(IllegalArgumentException.class, () -> LocationCatalog.of(List.of(
+            new Location("ZWOLLE-001", 1, 40),
+            new Location("ZWOLLE-001", 2, 50))));
+  }
+}
@@ -2,11 +2,19 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class LocationGatewayTest {
 
+  @TempDir
+  Path tempDir;
+
   @Test
   public void testWhenResolveExistingLocationShouldReturn() {
     // given
@@ -88,4 +96,37 @@ public class LocationGatewayTest {
     // then
     assertNull(location);
   }
+
+  @Test
+  public void testReloadReplacesCatalogWhenFileChanges() throws Exception {
+    // given
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "ROTTERDAM-001,4,120\n");
+    LocationGateway locationGateway = new LocationGateway();
+    locationGateway.reloadIfChanged(file);
+
+    // when
+    Files.writeString(file, "UTRECHT-001,2,60\n");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+    locationGateway.reloadIfChanged(file);
+
+    // then
+    assertNull(locationGateway.resolveByIdentifier("ROTTERDAM-001"));
+    assertNotNull(locationGateway.resolveByIdentifier("UTRECHT-001"));
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
+
+  @Test
+  public void testReloadKeepsCatalogWhenFileIsInvalid() throws Exception {
+    // given
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "not a location\n");
+    LocationGateway locationGateway = new LocationGateway();
+
+    // when
+    locationGateway.reloadIfChanged(file);
+
+    // then
+    assertNotNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
 }
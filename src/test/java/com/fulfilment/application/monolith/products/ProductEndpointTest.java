@@ -6,6 +6,8 @@ import static org.hamcrest.core.IsNot.not;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.TestMethodOrder;
 
 import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -20,6 +23,9 @@ public class ProductEndpointTest {
 
   private static final String PATH = "product";
 
+  @Inject
+  SessionFactory sessionFactory;
+
   @Test
   @Order(1)
   public void testListAllProducts() {
@@ -364,4 +370,22 @@ public class ProductEndpointTest {
                     not(containsString("KALLAX")),
                     not(containsString("BESTÅ")));
   }
+
+  @Test
+  @Order(15)
+  public void testListIsServedFromTheQueryCache() {
+    given().when().get(PATH).then().statusCode(200);
+    long hits = sessionFactory.getStatistics().getQueryCacheHitCount();
+
+    given().when().get(PATH).then().statusCode(200);
+
+    assertTrue(sessionFactory.getStatistics().getQueryCacheHitCount() > hits);
+    given()
+            .when()
+            .get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(containsString("hibernate_cache_query_requests_total"),
+                    containsString("region=\"" + Product.class.getName() + "\""));
+  }
 }
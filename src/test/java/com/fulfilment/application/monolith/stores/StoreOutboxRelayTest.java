@@ -0,0 +1,202 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@QuarkusTest
+public class StoreOutboxRelayTest {
+
+    @Inject
+    StoreOutboxRelay relay;
+
+    @Inject
+    StoreOutboxRepository outboxRepository;
+
+    @InjectMock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    private final List<Long> createdStoreIds = new ArrayList<>();
+
+    @BeforeEach
+    @Transactional
+    void clearOutbox() {
+        outboxRepository.deleteAll();
+    }
+
+    // keeps the store list as the other store tests expect it
+    @AfterEach
+    void deleteCreatedStores() {
+        createdStoreIds.forEach(id -> given().when().delete("/store/" + id));
+        createdStoreIds.clear();
+    }
+
+    @Test
+    public void testCreateWritesOutboxEventAndRelayDeliversIt() {
+        long storeId = createStore("Outbox Store A");
+
+        List<StoreOutboxEvent> pending = outboxRepository.listAll();
+        assertEquals(1, pending.size());
+        assertEquals(storeId, pending.get(0).getStoreId());
+        assertEquals(StoreOutboxEvent.Type.CREATED, pending.get(0).getType());
+        verify(legacyStoreManagerGateway, never()).createStoreOnLegacySystem(any());
+
+        assertEquals(1, relay.relayBatch());
+
+        ArgumentCaptor<Store> sent = ArgumentCaptor.forClass(Store.class);
+        verify(legacyStoreManagerGateway).createStoreOnLegacySystem(sent.capture());
+        assertEquals("Outbox Store A", sent.getValue().getName());
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, relay.getBacklog());
+    }
+
+    @Test
+    public void testCreateAndUpdateAreCoalescedIntoOneCreation() {
+        long storeId = createStore("Outbox Store B");
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"Outbox Store B2\", \"quantityProductsInStock\": 7}")
+                .when()
+                .put("/store/" + storeId)
+                .then()
+                .statusCode(200);
+
+        assertEquals(2, relay.relayBatch());
+
+        ArgumentCaptor<Store> sent = ArgumentCaptor.forClass(Store.class);
+        verify(legacyStoreManagerGateway, times(1)).createStoreOnLegacySystem(sent.capture());
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+        assertEquals("Outbox Store B2", sent.getValue().getName());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    public void testFailedDeliveryIsKeptForRetry() {
+        createStore("Outbox Store C");
+        doThrow(new RuntimeException("legacy system down"))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(any());
+        long failed = relay.getFailedCount();
+
+        assertEquals(1, relay.relayBatch());
+        assertEquals(failed + 1, relay.getFailedCount());
+        assertEquals(1, relay.getBacklog());
+
+        List<StoreOutboxEvent> pending = outboxRepository.listAll();
+        assertEquals(1, pending.size());
+        assertEquals(1, pending.get(0).getAttempts());
+
+        // pushed back by the retry backoff, so not due yet
+        assertEquals(0, relay.relayBatch());
+    }
+
+    @Test
+    public void testUpdateIsNotSentAheadOfAFailedCreate() {
+        long storeId = createStore("Outbox Store D");
+        doThrow(new RuntimeException("legacy system down"))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(any());
+        assertEquals(1, relay.relayBatch());
+
+        updateStore(storeId, "Outbox Store D2");
+
+        // the update is due, but the create it follows waits for its retry
+        assertEquals(0, relay.relayBatch());
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+        assertEquals(2, outboxRepository.count());
+    }
+
+    @Test
+    public void testFailedDeliveryReschedulesEventsWrittenSinceTheClaim() {
+        long storeId = createStore("Outbox Store E");
+        doAnswer(invocation -> {
+            // written and committed by a request while the relay is sending
+            updateStore(storeId, "Outbox Store E2");
+            throw new RuntimeException("legacy system down");
+        }).when(legacyStoreManagerGateway).createStoreOnLegacySystem(any());
+        long retried = relay.getRetriedCount();
+
+        assertEquals(1, relay.relayBatch());
+        assertEquals(retried + 2, relay.getRetriedCount());
+
+        List<StoreOutboxEvent> pending = outboxRepository.listAll();
+        assertEquals(2, pending.size());
+        pending.forEach(event -> assertEquals(1, event.getAttempts()));
+        assertEquals(pending.get(0).getAvailableAt(), pending.get(1).getAvailableAt());
+        assertEquals(0, relay.relayBatch());
+    }
+
+    @Test
+    public void testStoreIsClaimedByOneRelayAtATime() throws Exception {
+        long storeId = createStore("Outbox Store F");
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // another node's relay, holding the store's batch in its open transaction
+        CompletableFuture<Integer> otherRelay = CompletableFuture.supplyAsync(() ->
+                QuarkusTransaction.requiringNew().call(() -> {
+                    int size = outboxRepository.claimBatch(10).size();
+                    claimed.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return size;
+                }));
+        try {
+            assertTrue(claimed.await(10, TimeUnit.SECONDS));
+            // due and not locked by the other relay, but its store is
+            updateStore(storeId, "Outbox Store F2");
+            assertEquals(0, relay.relayBatch());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(1, otherRelay.get(10, TimeUnit.SECONDS));
+
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+        assertEquals(2, relay.relayBatch());
+    }
+
+    private void updateStore(long storeId, String name) {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 7}")
+                .when()
+                .put("/store/" + storeId)
+                .then()
+                .statusCode(200);
+    }
+
+    private long createStore(String name) {
+        long id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 5}")
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .extract()
+                .jsonPath()
+                .getLong("id");
+        createdStoreIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,157 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@QuarkusTest
+public class StockLedgerRepositoryTest {
+
+    private static final String CODE = "MWH.STOCK";
+
+    @Inject
+    StockLedgerRepository stockLedgerRepository;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @BeforeEach
+    void setUp() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = CODE;
+        warehouse.location = "VETSBY-001";
+        warehouse.capacity = 90;
+        warehouse.stock = 20;
+        warehouse.createdAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+    }
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            stockLedgerRepository.delete("businessUnitCode", CODE);
+            Warehouse warehouse;
+            while ((warehouse = warehouseRepository.findByBusinessUnitCode(CODE)) != null) {
+                warehouseRepository.remove(warehouse);
+            }
+        });
+    }
+
+    @Test
+    void currentStock_includesMovementsNotYetApplied() {
+        stockLedgerRepository.append(List.of(
+                movement(StockMovement.Type.INBOUND, 15),
+                movement(StockMovement.Type.OUTBOUND, -5),
+                movement(StockMovement.Type.ADJUSTMENT, -2)));
+
+        assertEquals(28, stockLedgerRepository.currentStock(CODE));
+        // the warehouse row itself is untouched until the movements are applied
+        assertEquals(20, warehouseRepository.findActiveByBusinessUnitCode(CODE).stock);
+        assertNull(stockLedgerRepository.currentStock(CODE + ".NONE"));
+    }
+
+    @Test
+    void applyPending_addsTheMovementsToTheWarehouseStock() {
+        stockLedgerRepository.append(List.of(
+                movement(StockMovement.Type.INBOUND, 15),
+                movement(StockMovement.Type.OUTBOUND, -5)));
+        assertEquals(20, warehouseRepository.findActiveByBusinessUnitCode(CODE).stock);
+
+        stockLedgerRepository.applyPending();
+
+        // the cached warehouse was evicted, and the applied movements are not counted twice
+        assertEquals(30, activeStock());
+        assertEquals(30, stockLedgerRepository.currentStock(CODE));
+
+        stockLedgerRepository.append(List.of(movement(StockMovement.Type.INBOUND, 1)));
+        Warehouse locked = QuarkusTransaction.requiringNew().call(() -> {
+            Warehouse warehouse = warehouseRepository.lockActiveByBusinessUnitCode(CODE);
+            stockLedgerRepository.applyPending(warehouse);
+            return warehouse;
+        });
+        assertEquals(31, locked.stock);
+        assertEquals(31, stockLedgerRepository.currentStock(CODE));
+    }
+
+    @Test
+    void findPage_returnsTheHistoryInOrder() {
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            movements.add(movement(StockMovement.Type.INBOUND, i));
+        }
+        stockLedgerRepository.append(movements);
+        movements.forEach(movement -> assertNotNull(movement.id));
+
+        List<StockMovement> first = stockLedgerRepository.findPage(CODE, null, 3);
+        List<StockMovement> second = stockLedgerRepository.findPage(CODE, first.get(2).id, 3);
+
+        assertEquals(List.of(1, 2, 3), first.stream().map(movement -> movement.quantity).toList());
+        assertEquals(List.of(4, 5), second.stream().map(movement -> movement.quantity).toList());
+    }
+
+    @Test
+    void concurrentAppends_loseNoMovements() throws Exception {
+        int threads = 8;
+        int appendsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        stockLedgerRepository.append(List.of(movement(StockMovement.Type.INBOUND, 1)));
+                        if (i % 10 == 0) {
+                            stockLedgerRepository.applyPending();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(20 + threads * appendsPerThread, stockLedgerRepository.currentStock(CODE));
+        stockLedgerRepository.applyPending();
+        assertEquals(20 + threads * appendsPerThread, activeStock());
+    }
+
+    // in a transaction of its own, the test's session may still hold the warehouse as it was first read
+    private int activeStock() {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> warehouseRepository.findActiveByBusinessUnitCode(CODE))
+                .stock;
+    }
+
+    private static StockMovement movement(StockMovement.Type type, int quantity) {
+        StockMovement movement = new StockMovement();
+        movement.businessUnitCode = CODE;
+        movement.type = type;
+        movement.quantity = quantity;
+        return movement;
+    }
+}
@@ -0,0 +1,161 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.InsufficientStockException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+public class StockReservationsTest {
+
+    private static final String CODE = "MWH.RESERVE";
+
+    @Inject
+    StockReservations stockReservations;
+
+    @Inject
+    StockLedgerRepository stockLedgerRepository;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @BeforeEach
+    void setUp() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = CODE;
+        warehouse.location = "VETSBY-001";
+        warehouse.capacity = 90;
+        warehouse.stock = 50;
+        warehouse.createdAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+    }
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            stockLedgerRepository.delete("businessUnitCode", CODE);
+            Warehouse warehouse;
+            while ((warehouse = warehouseRepository.findByBusinessUnitCode(CODE)) != null) {
+                warehouseRepository.remove(warehouse);
+            }
+        });
+        // drops the counter of the removed warehouse
+        stockReservations.refresh(Set.of(CODE));
+    }
+
+    @Test
+    void reserve_rejectsOnceTheStockIsExhausted() {
+        assertEquals(20, stockReservations.reserve(CODE, 30).available());
+        assertEquals(0, stockReservations.reserve(CODE, 20).available());
+        assertThrows(InsufficientStockException.class, () -> stockReservations.reserve(CODE, 1));
+
+        assertEquals(10, stockReservations.release(CODE, 10).available());
+        assertThrows(InsufficientStockException.class, () -> stockReservations.release(CODE, 41));
+        assertNull(stockReservations.reserve(CODE + ".NONE", 1));
+    }
+
+    @Test
+    void concurrentReservations_neverPromiseMoreThanTheStock() throws Exception {
+        int threads = 16;
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10; i++) {
+                        try {
+                            stockReservations.reserve(CODE, 1);
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            // expected once the 50 units are gone
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(50, reserved.get());
+        assertEquals(50, stockReservations.stockLevel(CODE).reserved());
+    }
+
+    @Test
+    void flush_writesTheReservationsThatARebuildRestores() {
+        stockReservations.reserve(CODE, 12);
+        stockReservations.release(CODE, 2);
+        stockReservations.flush();
+
+        assertEquals(10, reservedInDatabase());
+
+        // a restart rebuilds the counters from the database
+        stockReservations.rebuild();
+        assertEquals(10, stockReservations.stockLevel(CODE).reserved());
+        assertEquals(40, stockReservations.stockLevel(CODE).available());
+    }
+
+    @Test
+    void recordedMovements_reachTheCounters() {
+        stockReservations.reserve(CODE, 50);
+
+        StockMovement movement = new StockMovement();
+        movement.businessUnitCode = CODE;
+        movement.type = StockMovement.Type.INBOUND;
+        movement.quantity = 5;
+        stockLedgerRepository.append(List.of(movement));
+        stockReservations.flush();
+
+        assertEquals(55, stockReservations.stockLevel(CODE).stock());
+        assertEquals(0, stockReservations.reserve(CODE, 5).available());
+    }
+
+    @Test
+    void replace_keepsTheReservations() {
+        stockReservations.reserve(CODE, 7);
+        stockReservations.flush();
+
+        Warehouse replacement = new Warehouse();
+        replacement.location = "ZWOLLE-002";
+        replacement.capacity = 50;
+        replacement.stock = 50;
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.replace(
+                warehouseRepository.lockActiveByBusinessUnitCode(CODE), replacement));
+
+        assertEquals(7, reservedInDatabase());
+    }
+
+    private int reservedInDatabase() {
+        return QuarkusTransaction.requiringNew().call(() -> warehouseRepository
+                .find("businessUnitCode = ?1 and archivedAt is null", CODE)
+                .firstResult()
+                .reserved);
+    }
+}
@@ -0,0 +1,223 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationCapacity;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+public class WarehouseRepositoryTest {
+
+    private static final String CODE = "MWH.CACHE";
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    LocationCapacityRepository locationCapacityRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = CODE;
+        warehouse.location = "EINDHOVEN-001";
+        warehouse.capacity = 50;
+        warehouse.stock = 10;
+        warehouse.createdAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+    }
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Warehouse warehouse;
+            while ((warehouse = warehouseRepository.findByBusinessUnitCode(CODE)) != null) {
+                warehouseRepository.remove(warehouse);
+            }
+        });
+    }
+
+    @Test
+    void findActiveByBusinessUnitCode_servesRepeatedLookupsFromCache() {
+        warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        double hitsBefore = hits(WarehouseRepository.ACTIVE_WAREHOUSE_CACHE);
+
+        Warehouse first = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        first.stock = 999;
+        Warehouse second = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+
+        assertEquals(hitsBefore + 2, hits(WarehouseRepository.ACTIVE_WAREHOUSE_CACHE));
+        // callers get copies, changing one leaves the cached snapshot alone
+        assertEquals(10, second.stock);
+    }
+
+    @Test
+    void create_evictsCachedAbsence() {
+        String code = CODE + ".NEW";
+        assertNull(warehouseRepository.findActiveByBusinessUnitCode(code));
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = code;
+        warehouse.location = "EINDHOVEN-001";
+        warehouse.capacity = 50;
+        warehouse.stock = 10;
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+
+        try {
+            assertNotNull(warehouseRepository.findActiveByBusinessUnitCode(code));
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> warehouseRepository.remove(warehouse));
+        }
+        assertNull(warehouseRepository.findByBusinessUnitCode(code));
+    }
+
+    @Test
+    void update_evictsCachedWarehouse() {
+        Warehouse warehouse = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        assertNotNull(warehouse);
+
+        warehouse.archivedAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.update(warehouse));
+
+        assertNull(warehouseRepository.findActiveByBusinessUnitCode(CODE));
+        // in a transaction of its own, the test's session still holds the entity as it was before the update
+        assertNotNull(QuarkusTransaction.requiringNew()
+                .call(() -> warehouseRepository.findByBusinessUnitCode(CODE))
+                .archivedAt);
+    }
+
+    @Test
+    void rolledBackUpdate_isNeverCached() {
+        warehouseRepository.findActiveByBusinessUnitCode(CODE);
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            Warehouse warehouse = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+            warehouse.stock = 20;
+            warehouseRepository.update(warehouse);
+
+            // the transaction sees its own write
+            assertEquals(20, warehouseRepository.findActiveByBusinessUnitCode(CODE).stock);
+            throw new IllegalStateException("roll back");
+        }));
+
+        assertEquals(10, warehouseRepository.findActiveByBusinessUnitCode(CODE).stock);
+    }
+
+    @Test
+    void create_rejectsASecondActiveWarehouseWithTheSameCode() {
+        Warehouse duplicate = new Warehouse();
+        duplicate.businessUnitCode = CODE;
+        duplicate.location = "EINDHOVEN-001";
+        duplicate.capacity = 10;
+        duplicate.stock = 0;
+        duplicate.createdAt = LocalDateTime.now();
+
+        // the partial unique index allows one active row per code, whatever got past the validation
+        assertThrows(RuntimeException.class,
+                () -> QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(duplicate)));
+        assertEquals(1, QuarkusTransaction.requiringNew().call(() -> warehouseRepository
+                .count("businessUnitCode = ?1 and archivedAt is null", CODE)));
+    }
+
+    @Test
+    void replace_swapsTheActiveWarehouse() {
+        Warehouse replacement = new Warehouse();
+        replacement.location = "ZWOLLE-002";
+        replacement.capacity = 40;
+        replacement.stock = 10;
+
+        Warehouse replaced = QuarkusTransaction.requiringNew().call(() -> {
+            Warehouse current = warehouseRepository.lockActiveByBusinessUnitCode(CODE);
+            warehouseRepository.replace(current, replacement);
+            return current;
+        });
+
+        assertNotNull(replaced.archivedAt);
+        Warehouse active = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        assertEquals(replacement.id, active.id);
+        assertEquals("ZWOLLE-002", active.location);
+        // the active row wins over the archived one
+        assertEquals(replacement.id, warehouseRepository.findByBusinessUnitCode(CODE).id);
+    }
+
+    @Test
+    void replace_failsWhenTheWarehouseIsNoLongerActive() {
+        Warehouse current = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        Warehouse archived = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        archived.archivedAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.update(archived));
+
+        Warehouse replacement = new Warehouse();
+        replacement.location = "ZWOLLE-002";
+        replacement.capacity = 40;
+        replacement.stock = 10;
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew()
+                .run(() -> warehouseRepository.replace(current, replacement)));
+        assertNull(warehouseRepository.findActiveByBusinessUnitCode(CODE));
+    }
+
+    @Test
+    void writes_keepTheLocationTotalsUpToDate() {
+        LocationCapacity eindhoven = totals("EINDHOVEN-001");
+        LocationCapacity zwolle = totals("ZWOLLE-002");
+
+        Warehouse warehouse = warehouseRepository.findActiveByBusinessUnitCode(CODE);
+        warehouse.capacity = 60;
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.update(warehouse));
+        assertTotals(eindhoven, 0, 10, totals("EINDHOVEN-001"));
+
+        Warehouse replacement = new Warehouse();
+        replacement.location = "ZWOLLE-002";
+        replacement.capacity = 40;
+        replacement.stock = 10;
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.replace(
+                warehouseRepository.lockActiveByBusinessUnitCode(CODE), replacement));
+        assertTotals(eindhoven, -1, -50, totals("EINDHOVEN-001"));
+        assertTotals(zwolle, 1, 40, totals("ZWOLLE-002"));
+
+        replacement.archivedAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.update(replacement));
+        assertTotals(zwolle, 0, 0, totals("ZWOLLE-002"));
+
+        // the recomputed totals agree with the incremental ones
+        QuarkusTransaction.requiringNew().run(() -> locationCapacityRepository.rebuild());
+        assertTotals(eindhoven, -1, -50, totals("EINDHOVEN-001"));
+        assertTotals(zwolle, 0, 0, totals("ZWOLLE-002"));
+    }
+
+    private LocationCapacity totals(String location) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> locationCapacityRepository.lock(List.of(location)).get(location));
+    }
+
+    private static void assertTotals(LocationCapacity before, int warehouses, int capacity, LocationCapacity after) {
+        assertEquals(before.warehouseCount() + warehouses, after.warehouseCount());
+        assertEquals(before.totalCapacity() + capacity, after.totalCapacity());
+    }
+
+    private double hits(String cacheName) {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tag("cache", cacheName)
+                .tag("result", "hit")
+                .functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockLedgerRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockReservations;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+public class StockResourceTest {
+
+  private static final String CODE = "MWH.STOCK.API";
+  private static final String PATH = "warehouses/" + CODE + "/stock";
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  StockLedgerRepository stockLedgerRepository;
+
+  @Inject
+  StockReservations stockReservations;
+
+  @BeforeEach
+  void setUp() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = CODE;
+    warehouse.location = "VETSBY-001";
+    warehouse.capacity = 90;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.now();
+    QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+  }
+
+  @AfterEach
+  void tearDown() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      stockLedgerRepository.delete("businessUnitCode", CODE);
+      Warehouse warehouse;
+      while ((warehouse = warehouseRepository.findByBusinessUnitCode(CODE)) != null) {
+        warehouseRepository.remove(warehouse);
+      }
+    });
+    stockReservations.refresh(Set.of(CODE));
+  }
+
+  @Test
+  public void testRecordedMovementsMakeUpTheStock() {
+    given()
+            .contentType(ContentType.JSON)
+            .body("""
+                [
+                  {"type": "INBOUND", "quantity": 30},
+                  {"type": "OUTBOUND", "quantity": 12},
+                  {"type": "ADJUSTMENT", "quantity": -3}
+                ]
+                """)
+            .when()
+            .post(PATH + "/movements")
+            .then()
+            .statusCode(201)
+            .body("", hasSize(3))
+            .body("[0].id", notNullValue())
+            .body("[1].quantity", equalTo(-12));
+
+    given().when().get(PATH).then()
+            .statusCode(200)
+            .body("stock", equalTo(25));
+    given().when().get(PATH + "/movements?limit=2").then()
+            .statusCode(200)
+            .body("", hasSize(2))
+            .body("[0].type", equalTo("INBOUND"));
+  }
+
+  @Test
+  public void testArchivingAppliesTheRecordedMovements() {
+    given()
+            .contentType(ContentType.JSON)
+            .body("[{\"type\": \"INBOUND\", \"quantity\": 5}]")
+            .when()
+            .post(PATH + "/movements")
+            .then()
+            .statusCode(201);
+
+    given().when().delete("warehouses/" + CODE).then().statusCode(204);
+
+    Warehouse archived = QuarkusTransaction.requiringNew()
+            .call(() -> warehouseRepository.findByBusinessUnitCode(CODE));
+    assertEquals(15, archived.stock);
+  }
+
+  @Test
+  public void testInvalidMovementIsRejected() {
+    given()
+            .contentType(ContentType.JSON)
+            .body("[{\"type\": \"INBOUND\", \"quantity\": 5}, {\"type\": \"OUTBOUND\", \"quantity\": -4}]")
+            .when()
+            .post(PATH + "/movements")
+            .then()
+            .statusCode(400)
+            .body(containsString("must be positive"));
+
+    // nothing of the batch was recorded
+    given().when().get(PATH).then()
+            .statusCode(200)
+            .body("stock", equalTo(10));
+  }
+
+  @Test
+  public void testReservationsBeyondTheAvailableStockAreRejected() {
+    given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 8}")
+            .when()
+            .post(PATH + "/reservations")
+            .then()
+            .statusCode(201)
+            .body("reserved", equalTo(8))
+            .body("available", equalTo(2));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 3}")
+            .when()
+            .post(PATH + "/reservations")
+            .then()
+            .statusCode(409)
+            .body(containsString("only 2 available"));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 8}")
+            .when()
+            .post(PATH + "/reservations/release")
+            .then()
+            .statusCode(200)
+            .body("available", equalTo(10));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 0}")
+            .when()
+            .post(PATH + "/reservations")
+            .then()
+            .statusCode(400);
+  }
+
+  @Test
+  public void testUnknownWarehouseIsNotFound() {
+    given().when().get("warehouses/NONEXISTENT-999/stock").then().statusCode(404);
+    given()
+            .contentType(ContentType.JSON)
+            .body("[{\"type\": \"INBOUND\", \"quantity\": 5}]")
+            .when()
+            .post("warehouses/NONEXISTENT-999/stock/movements")
+            .then()
+            .statusCode(404);
+    given().when().get("warehouses/NONEXISTENT-999/stock/reservations").then().statusCode(404);
+  }
+}
@@ -3,6 +3,7 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import io.quarkus.test.junit.QuarkusIntegrationTest;
 import io.quarkus.test.junit.QuarkusTest;
@@ -12,6 +13,14 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 @QuarkusTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class WarehouseEndpointIT {
@@ -20,7 +29,7 @@ public class WarehouseEndpointIT {
   @Test
   @Order(1)
   public void testListAllWarehouses() {
-    // List all warehouses - should have 3 from import.sql
+    // List all warehouses - should have 3 from the demo data
     given()
             .when()
             .get(PATH)
@@ -217,7 +226,7 @@ public class WarehouseEndpointIT {
     String replacementWarehouse = """
         {
           "businessUnitCode": "MWH.001",
-          "location": "AMSTERDAM-001",
+          "location": "AMSTERDAM-002",
           "capacity": 50,
           "stock": 10
         }
@@ -231,7 +240,7 @@ public class WarehouseEndpointIT {
             .then()
             .statusCode(200)
             .body(containsString("MWH.001"))
-            .body(containsString("AMSTERDAM-001"))
+            .body(containsString("AMSTERDAM-002"))
             .body(containsString("\"capacity\":50"))
             .body(containsString("\"stock\":10"));
 
@@ -241,7 +250,7 @@ public class WarehouseEndpointIT {
             .get(PATH + "/MWH.001")
             .then()
             .statusCode(200)
-            .body(containsString("AMSTERDAM-001"))
+            .body(containsString("AMSTERDAM-002"))
             .body(not(containsString("ZWOLLE-001")));
   }
 
@@ -312,4 +321,115 @@ public class WarehouseEndpointIT {
             .statusCode(400)
             .body(containsString("stock"));
   }
+
+  @Test
+  @Order(15)
+  public void testArchiveReplacedWarehouse() {
+    // Replace the warehouse created in test 4, then archive the active one
+    String replacementWarehouse = """
+        {
+          "businessUnitCode": "NEW-WH-999",
+          "location": "EINDHOVEN-001",
+          "capacity": 60,
+          "stock": 35
+        }
+        """;
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(replacementWarehouse)
+            .when()
+            .put(PATH + "/NEW-WH-999/replace")
+            .then()
+            .statusCode(200)
+            .body(containsString("EINDHOVEN-001"));
+
+    given()
+            .when()
+            .delete(PATH + "/NEW-WH-999")
+            .then()
+            .statusCode(204);
+
+    given()
+            .when()
+            .get(PATH + "/NEW-WH-999")
+            .then()
+            .statusCode(404);
+  }
+
+  @Test
+  @Order(16)
+  public void testCreateWarehouseExceedingLocationCapacity() {
+    // MWH.012 already takes all 100 of AMSTERDAM-001's capacity, though the location allows more warehouses
+    String warehouse = """
+        {
+          "businessUnitCode": "NEW-WH-998",
+          "location": "AMSTERDAM-001",
+          "capacity": 10,
+          "stock": 5
+        }
+        """;
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(warehouse)
+            .when()
+            .post(PATH)
+            .then()
+            .statusCode(400)
+            .body(containsString("maximum capacity of the location"));
+  }
+
+  @Test
+  @Order(17)
+  public void testConcurrentCreatesAtFullLocation() throws Exception {
+    // HELMOND-001 takes a single warehouse, only one of the concurrent creates may get it
+    int attempts = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(attempts);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> statuses = new ArrayList<>();
+    try {
+      for (int i = 0; i < attempts; i++) {
+        String warehouse = """
+            {
+              "businessUnitCode": "NEW-WH-HELMOND-%d",
+              "location": "HELMOND-001",
+              "capacity": 40,
+              "stock": 5
+            }
+            """.formatted(i);
+        statuses.add(executor.submit(() -> {
+          start.await();
+          return given()
+                  .contentType(ContentType.JSON)
+                  .body(warehouse)
+                  .when()
+                  .post(PATH)
+                  .then()
+                  .extract()
+                  .statusCode();
+        }));
+      }
+      start.countDown();
+
+      List<Integer> created = new ArrayList<>();
+      for (int i = 0; i < attempts; i++) {
+        int status = statuses.get(i).get(30, TimeUnit.SECONDS);
+        if (status == 200) {
+          created.add(i);
+        } else {
+          assertEquals(400, status);
+        }
+      }
+      assertEquals(1, created.size());
+
+      given()
+              .when()
+              .delete(PATH + "/NEW-WH-HELMOND-" + created.get(0))
+              .then()
+              .statusCode(204);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
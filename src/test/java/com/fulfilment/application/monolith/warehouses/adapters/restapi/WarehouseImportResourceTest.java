@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class WarehouseImportResourceTest {
+
+  private static final String PATH = "warehouses/import";
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @AfterEach
+  void tearDown() {
+    QuarkusTransaction.requiringNew().run(() -> warehouseRepository.find("businessUnitCode like 'IMP.%'")
+            .list()
+            .forEach(warehouse -> warehouseRepository.remove(warehouse.toWarehouse())));
+  }
+
+  @Test
+  public void testCsvImportValidatesEveryRowAgainstTheDatabaseAndTheFile() {
+    String csv = """
+        businessUnitCode,location,capacity,stock
+        IMP.001,ZWOLLE-002,20,5
+        IMP.002,ZWOLLE-002,20,5
+        IMP.003,ZWOLLE-002,5,1
+        IMP.001,VETSBY-001,10,1
+
+        IMP.004,NOWHERE-001,10,1
+        IMP.005,VETSBY-001,abc,1
+        IMP.006,VETSBY-001,10,20
+        IMP.007,VETSBY-001,100,1
+        IMP.008,VETSBY-001,90,1
+        """;
+
+    List<JsonPath> results = importFile("text/csv", csv);
+
+    assertEquals(9, results.size());
+    assertResult(results.get(0), 2, "IMP.001", 201, null);
+    assertResult(results.get(1), 3, "IMP.002", 201, null);
+    assertResult(results.get(2), 4, "IMP.003", 400, "Maximum number of warehouses (2) already reached");
+    assertResult(results.get(3), 5, "IMP.001", 400, "already exists");
+    assertResult(results.get(4), 7, "IMP.004", 400, "Invalid location");
+    assertResult(results.get(5), 8, "IMP.005", 400, "Invalid capacity 'abc'");
+    assertResult(results.get(6), 9, "IMP.006", 400, "cannot exceed warehouse capacity");
+    assertResult(results.get(7), 10, "IMP.007", 400, "exceeds maximum capacity for location");
+    assertResult(results.get(8), 11, "IMP.008", 201, null);
+
+    assertNotNull(warehouseRepository.findActiveByBusinessUnitCode("IMP.002"));
+    assertNull(warehouseRepository.findActiveByBusinessUnitCode("IMP.003"));
+    assertEquals("ZWOLLE-002", warehouseRepository.findActiveByBusinessUnitCode("IMP.001").location);
+  }
+
+  @Test
+  public void testNdjsonImportRejectsExistingCodes() {
+    importFile("application/x-ndjson", "{\"businessUnitCode\":\"IMP.010\",\"location\":\"VETSBY-001\",\"capacity\":30,\"stock\":3}\n");
+
+    List<JsonPath> results = importFile("application/x-ndjson", """
+        {"businessUnitCode":"IMP.010","location":"ZWOLLE-002","capacity":30,"stock":3}
+        {"businessUnitCode":"IMP.011","location":"ZWOLLE-002","capacity":30,"stock":3}
+        not json
+        {"businessUnitCode":"IMP.012","location":"VETSBY-001","capacity":30,"stock":3}
+        """);
+
+    assertEquals(4, results.size());
+    assertResult(results.get(0), 1, "IMP.010", 400, "already exists");
+    assertResult(results.get(1), 2, "IMP.011", 201, null);
+    assertResult(results.get(2), 3, null, 400, "Invalid JSON");
+    // the location takes a single warehouse, held by the first import
+    assertResult(results.get(3), 4, "IMP.012", 400, "Maximum number of warehouses (1) already reached");
+  }
+
+  @Test
+  public void testCsvWithoutTheRequiredColumnsIsRejected() {
+    given()
+            .contentType("text/csv")
+            .body("businessUnitCode,location,capacity\nIMP.020,VETSBY-001,10\n")
+            .when()
+            .post(PATH)
+            .then()
+            .statusCode(400);
+  }
+
+  private List<JsonPath> importFile(String contentType, String body) {
+    String response = given()
+            .contentType(contentType)
+            .body(body.getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(PATH)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+    return Arrays.stream(response.split("\n")).map(JsonPath::from).toList();
+  }
+
+  private static void assertResult(JsonPath result, int line, String businessUnitCode, int status, String error) {
+    assertEquals(line, result.getInt("line"));
+    assertEquals(businessUnitCode, result.getString("businessUnitCode"));
+    assertEquals(status, result.getInt("status"));
+    if (error == null) {
+      assertNull(result.getString("error"));
+    } else {
+      assertTrue(result.getString("error").contains(error), result.getString("error"));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.fulfilment.application.monolith.warehouses.domain.services;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.FulfillmentConstraintIndex;
+import com.fulfilment.application.monolith.fulfillment.domain.models.StoreProductWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class WarehouseValidationServiceTest {
+
+    @Inject
+    WarehouseValidationService validationService;
+
+    @InjectMock
+    WarehouseRepository warehouseRepository;
+
+    @InjectMock
+    FulfillmentConstraintIndex constraintIndex;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        when(warehouseRepository.findActiveBusinessUnitCodes(anyCollection()))
+                .thenReturn(Set.of("WH-001", "WH-002", "WH-003", "WH-004"));
+    }
+
+    @Test
+    void validateFulfillmentAssociations_acceptsValidBatch() {
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 11L, "WH-002")));
+
+        assertNull(rejections.get(0));
+        assertNull(rejections.get(1));
+        verify(warehouseRepository, times(1)).findActiveBusinessUnitCodes(anyCollection());
+    }
+
+    @Test
+    void validateFulfillmentAssociations_rejectsUnknownWarehouse() {
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-404")));
+
+        assertTrue(rejections.get(0).contains("does not exist or is archived"));
+    }
+
+    @Test
+    void validateFulfillmentAssociations_rejectsDuplicateWithinBatch() {
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 10L, "WH-001")));
+
+        assertNull(rejections.get(0));
+        assertTrue(rejections.get(1).contains("already exists"));
+    }
+
+    @Test
+    void validateFulfillmentAssociations_countsBatchTowardsWarehousesPerProductPerStore() {
+        when(constraintIndex.countByStoreAndProduct(1L, 10L)).thenReturn(1L);
+
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 10L, "WH-002")));
+
+        assertNull(rejections.get(0));
+        assertTrue(rejections.get(1).contains("already has the maximum of 2 warehouses"));
+    }
+
+    @Test
+    void validateFulfillmentAssociations_countsBatchTowardsWarehousesPerStore() {
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(1L, 11L, "WH-002"),
+                new StoreProductWarehouse(1L, 12L, "WH-003"),
+                new StoreProductWarehouse(1L, 13L, "WH-001"),
+                new StoreProductWarehouse(1L, 14L, "WH-004")));
+
+        assertNull(rejections.get(0));
+        assertNull(rejections.get(1));
+        assertNull(rejections.get(2));
+        // WH-001 is already used by the store, so it does not count as a new warehouse
+        assertNull(rejections.get(3));
+        assertTrue(rejections.get(4).contains("maximum of 3 different warehouses"));
+    }
+
+    @Test
+    void validateFulfillmentAssociations_countsBatchTowardsProductsPerWarehouse() {
+        when(constraintIndex.countProductsByWarehouse("WH-001")).thenReturn(4L);
+
+        List<String> rejections = validationService.validateFulfillmentAssociations(List.of(
+                new StoreProductWarehouse(1L, 10L, "WH-001"),
+                new StoreProductWarehouse(2L, 10L, "WH-001"),
+                new StoreProductWarehouse(3L, 11L, "WH-001")));
+
+        assertNull(rejections.get(0));
+        // Same product again, the warehouse still stores 5 product types
+        assertNull(rejections.get(1));
+        assertTrue(rejections.get(2).contains("maximum of 5 different products"));
+    }
+
+    @Test
+    void validateWarehousesPerStore_recordsRuleTimingAndRejection() {
+        when(warehouseRepository.findActiveByBusinessUnitCode("WH-001"))
+                .thenReturn(new Warehouse());
+        when(constraintIndex.countDistinctWarehousesByStore(1L)).thenReturn(3L);
+
+        double timedBefore = meterRegistry.get("warehouse.validation.rule")
+                .tag("rule", "warehousesPerStore").timer().count();
+        double rejectedBefore = meterRegistry.get("warehouse.validation.rejections")
+                .tag("rule", "warehousesPerStore").counter().count();
+
+        assertThrows(WarehouseValidationException.class,
+                () -> validationService.validateFulfillmentAssociation(1L, 10L, "WH-001"));
+
+        assertEquals(timedBefore + 1, meterRegistry.get("warehouse.validation.rule")
+                .tag("rule", "warehousesPerStore").timer().count());
+        assertEquals(rejectedBefore + 1, meterRegistry.get("warehouse.validation.rejections")
+                .tag("rule", "warehousesPerStore").counter().count());
+    }
+}
@@ -1,3 +1,4 @@
+-- Test data, loaded into the schema the migrations build at the start of every test run
 -- Test data for stores
 INSERT INTO store(id, name, quantityProductsInStock) VALUES (1, 'Stockholm Store', 100);
 INSERT INTO store(id, name, quantityProductsInStock) VALUES (2, 'Gothenburg Store', 150);